@@ -28,6 +28,7 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -36,11 +37,13 @@ import androidx.annotation.Nullable;
 import com.android.emergency.action.broadcast.EmergencyActionBroadcastReceiver;
 import com.android.emergency.action.sensoryfeedback.EmergencyActionAlarmHelper;
 import com.android.emergency.action.service.EmergencyActionForegroundService;
-import com.android.emergency.widgets.countdown.CountDownAnimationView;
+import com.android.emergency.widgets.countdown.CountDownView;
 import com.android.emergency.widgets.slider.OnSlideCompleteListener;
 import com.android.emergency.widgets.slider.SliderView;
 import com.android.settingslib.emergencynumber.EmergencyNumberUtils;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.time.Duration;
 
 public class EmergencyActionFragment extends Fragment implements OnSlideCompleteListener {
@@ -87,6 +90,13 @@ public class EmergencyActionFragment extends Fragment implements OnSlideComplete
         subtitleView.setText(getString(R.string.emergency_action_subtitle,
                 mEmergencyNumberUtils.getPoliceNumber()));
 
+        ViewStub countDownViewStub = view.findViewById(R.id.count_down_view_stub);
+        countDownViewStub.setLayoutResource(
+                getResources().getBoolean(R.bool.count_down_view_use_render_thread)
+                        ? R.layout.count_down_render_thread_view
+                        : R.layout.count_down_animation_view);
+        countDownViewStub.inflate();
+
         SliderView cancelButton = view.findViewById(R.id.btn_cancel);
         cancelButton.setSlideCompleteListener(this);
 
@@ -128,9 +138,8 @@ public class EmergencyActionFragment extends Fragment implements OnSlideComplete
         super.onStop();
 
         if (mCountDownTimer != null) {
-            CountDownAnimationView countDownAnimationView =
-                    getView().findViewById(R.id.count_down_view);
-            countDownAnimationView.stop();
+            CountDownView countDownView = getView().findViewById(R.id.count_down_view);
+            countDownView.stop();
             mCountDownTimer.cancel();
         }
 
@@ -149,6 +158,16 @@ public class EmergencyActionFragment extends Fragment implements OnSlideComplete
         }
     }
 
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        View view = getView();
+        if (view != null) {
+            CountDownView countDownView = view.findViewById(R.id.count_down_view);
+            countDownView.dump(prefix, writer);
+        }
+    }
+
     @Override
     public void onSlideComplete() {
         mCountdownCancelled = true;
@@ -157,11 +176,10 @@ public class EmergencyActionFragment extends Fragment implements OnSlideComplete
     }
 
     private void startTimer() {
-        CountDownAnimationView countDownAnimationView =
-                getView().findViewById(R.id.count_down_view);
+        CountDownView countDownView = getView().findViewById(R.id.count_down_view);
 
         if (mCountDownTimer != null) {
-            countDownAnimationView.stop();
+            countDownView.stop();
             mCountDownTimer.cancel();
         }
 
@@ -171,10 +189,10 @@ public class EmergencyActionFragment extends Fragment implements OnSlideComplete
                         getResources().getInteger(R.integer.emergency_action_count_down_interval)) {
                     @Override
                     public void onTick(long millisUntilFinished) {
-                        CountDownAnimationView countDownAnimationView =
+                        CountDownView countDownView =
                                 getView().findViewById(R.id.count_down_view);
-                        if (countDownAnimationView != null) {
-                            countDownAnimationView.setCountDownLeft(
+                        if (countDownView != null) {
+                            countDownView.setCountDownLeft(
                                     Duration.ofMillis(millisUntilFinished));
                         }
 
@@ -195,7 +213,7 @@ public class EmergencyActionFragment extends Fragment implements OnSlideComplete
 
         mCountDownTimer.start();
 
-        countDownAnimationView.start(Duration.ofMillis(mCountDownMillisLeft));
-        countDownAnimationView.showCountDown();
+        countDownView.start(Duration.ofMillis(mCountDownMillisLeft));
+        countDownView.showCountDown();
     }
 }
@@ -18,36 +18,37 @@ package com.android.emergency.widgets.countdown;
 
 import android.content.Context;
 import android.graphics.PixelFormat;
-import android.icu.text.MessageFormat;
 import android.util.AttributeSet;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
 import androidx.annotation.UiThread;
 
-import com.android.emergency.action.R;
-
 import com.google.common.util.concurrent.Uninterruptibles;
 
+import java.io.PrintWriter;
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
 
 /**
  * The view includes an animation which circle around the view when counting down, and a text view
  * to show the seconds left.
  */
-public class CountDownAnimationView extends SurfaceView implements SurfaceHolder.Callback {
+public class CountDownAnimationView extends SurfaceView
+        implements CountDownView, SurfaceHolder.Callback {
 
+    private final CountDownFrameStats mFrameStats;
+    private final CountDownContentDescription mContentDescription;
     private LoopingAnimationThread mLoopingAnimationThread;
     private boolean mIsSurfaceCreated;
     private boolean mIsStarted;
     private Duration mCountDownDuration;
     private boolean mShowCountDown;
+    private boolean mIsVisible = true;
 
     public CountDownAnimationView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        mFrameStats = new CountDownFrameStats(context);
+        mContentDescription = new CountDownContentDescription(this);
 
         // This is required to draw on top of existing graphics.
         setZOrderOnTop(true);
@@ -66,12 +67,24 @@ public class CountDownAnimationView extends SurfaceView implements SurfaceHolder
         mLoopingAnimationThread =
                 new LoopingAnimationThread(
                         holder,
-                        getContext());
+                        getContext(),
+                        mFrameStats);
+        mLoopingAnimationThread.setPaused(!mIsVisible);
         if (mIsStarted) {
             startInternal();
         }
     }
 
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        // Don't draw frames nobody can see.
+        mIsVisible = isVisible;
+        if (mIsSurfaceCreated) {
+            mLoopingAnimationThread.setPaused(!isVisible);
+        }
+    }
+
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
         mLoopingAnimationThread.updateSize(width, height);
@@ -93,12 +106,14 @@ public class CountDownAnimationView extends SurfaceView implements SurfaceHolder
      * <p>This is not thread safe, and is only meant to be called from the main thread.
      */
     @UiThread
+    @Override
     public void start(Duration countDownDuration) {
         if (mIsStarted) {
             return;
         }
 
         mIsStarted = true;
+        mFrameStats.onStart(System.nanoTime());
         this.mCountDownDuration = countDownDuration;
         // The animation does not start until the surface has been created, see
         // {@link #surfaceCreated(SurfaceHolder)} for details.
@@ -118,6 +133,7 @@ public class CountDownAnimationView extends SurfaceView implements SurfaceHolder
     }
 
     /** Starts rendering count down text that is set with {@link #setCountDownLeft}. */
+    @Override
     public void showCountDown() {
         mShowCountDown = true;
         if (mIsSurfaceCreated) {
@@ -126,25 +142,32 @@ public class CountDownAnimationView extends SurfaceView implements SurfaceHolder
     }
 
     /** Sets the count down to be rendered. */
+    @Override
     public void setCountDownLeft(Duration timeLeft) {
         if (mIsSurfaceCreated) {
             mLoopingAnimationThread.setCountDownLeft(timeLeft);
-
-            MessageFormat msgFormat = new MessageFormat(
-                    mContext.getString(R.string.countdown_text_content_description),
-                    Locale.getDefault());
-            Map<String, Object> msgArgs = new HashMap<>();
-            msgArgs.put("seconds_left", timeLeft.getSeconds());
-            setContentDescription(msgFormat.format(msgArgs));
+            mContentDescription.update(timeLeft.getSeconds());
         }
     }
 
     /** Stop the animation. This is only meant to be called from the main thread. */
+    @Override
     public void stop() {
+        if (mIsStarted) {
+            mFrameStats.log(getContext());
+        }
         mIsStarted = false;
         if (!mIsSurfaceCreated) {
             return;
         }
         mLoopingAnimationThread.stopDrawing();
     }
+
+    /** Dumps the timing of the frames drawn since the animation was started. */
+    @Override
+    public void dump(String prefix, PrintWriter pw) {
+        pw.print(prefix);
+        pw.println("CountDownAnimationView:");
+        mFrameStats.dump(prefix + "  ", pw);
+    }
 }
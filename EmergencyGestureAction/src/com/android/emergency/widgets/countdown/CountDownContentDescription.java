@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.emergency.widgets.countdown;
+
+import android.icu.text.MessageFormat;
+import android.view.View;
+
+import com.android.emergency.action.R;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/** Keeps the content description of a {@link CountDownView} in sync with the seconds left. */
+final class CountDownContentDescription {
+
+    private final View mView;
+    private MessageFormat mFormat;
+    /** Seconds left in the content description, or -1 if it is not set yet. */
+    private long mSecondsLeft = -1;
+
+    CountDownContentDescription(View view) {
+        mView = view;
+    }
+
+    /** Updates the content description of the view, if {@code secondsLeft} changed. */
+    void update(long secondsLeft) {
+        // The count down is set every few milliseconds, but its text only changes once per second.
+        if (secondsLeft == mSecondsLeft) {
+            return;
+        }
+        mSecondsLeft = secondsLeft;
+        if (mFormat == null) {
+            mFormat = new MessageFormat(
+                    mView.getContext().getString(R.string.countdown_text_content_description),
+                    Locale.getDefault());
+        }
+        Map<String, Object> msgArgs = new HashMap<>();
+        msgArgs.put("seconds_left", secondsLeft);
+        mView.setContentDescription(mFormat.format(msgArgs));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.emergency.widgets.countdown;
+
+import android.content.Context;
+
+import com.android.emergency.action.R;
+import com.android.internal.logging.MetricsLogger;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing of the frames drawn by {@link CountDownAnimationView} since it was started: how many were
+ * drawn, how many took longer than the frame interval, the longest one, how many came late after
+ * the previous one, the longest gap between two frames, and the time from start to the first
+ * frame posted.
+ *
+ * <p>A frame can be drawn quickly and still be late, e.g. when its thread was not scheduled in time
+ * or vsyncs were skipped, so the gaps between the frame times are what shows visible jank.
+ *
+ * <p>Frames are recorded by the thread drawing them, and read from the ui thread, which only resets
+ * the stats before frames are drawn. Each value has a single writer at a time, so they are
+ * volatile instead of locked.
+ */
+final class CountDownFrameStats {
+
+    /** Time a frame can take without delaying the next one, in nanoseconds. */
+    private final long mFrameBudgetNanos;
+
+    // Written from ui thread.
+    private volatile long mStartNanos = -1;
+
+    // Written from the thread drawing the frames.
+    private volatile int mFrameCount;
+    private volatile int mFramesOverBudgetCount;
+    private volatile long mLongestFrameNanos;
+    /** Number of frames that came more than one and a half frame intervals after the last one. */
+    private volatile int mLateFrameCount;
+    private volatile long mLongestFrameGapNanos;
+    /** Vsync time of the last frame posted, or -1 if none was posted yet. */
+    private volatile long mLastFrameTimeNanos = -1;
+    /** Time from start to the first frame posted, or -1 if none was posted yet. */
+    private volatile long mFirstFrameLatencyNanos = -1;
+
+    // Only accessed on ui thread.
+    private boolean mIsLogged;
+
+    CountDownFrameStats(Context context) {
+        mFrameBudgetNanos = TimeUnit.SECONDS.toNanos(1)
+                / context.getResources().getInteger(R.integer.count_down_view_frame_rate);
+    }
+
+    /**
+     * Resets the stats when the animation is started.
+     *
+     * <p>Called from ui thread.
+     */
+    void onStart(long startNanos) {
+        mFrameCount = 0;
+        mFramesOverBudgetCount = 0;
+        mLongestFrameNanos = 0;
+        mLateFrameCount = 0;
+        mLongestFrameGapNanos = 0;
+        mLastFrameTimeNanos = -1;
+        mFirstFrameLatencyNanos = -1;
+        mIsLogged = false;
+        mStartNanos = startNanos;
+    }
+
+    /**
+     * Records a frame for the vsync at {@code frameTimeNanos}, drawn from {@code frameStartNanos}
+     * until it was posted at {@code framePostedNanos}, all from {@link System#nanoTime()}.
+     *
+     * <p>Called from the thread drawing the frames.
+     */
+    void onFramePosted(long frameTimeNanos, long frameStartNanos, long framePostedNanos) {
+        long startNanos = mStartNanos;
+        if (mFirstFrameLatencyNanos < 0 && startNanos >= 0) {
+            mFirstFrameLatencyNanos = framePostedNanos - startNanos;
+        }
+        long frameNanos = framePostedNanos - frameStartNanos;
+        mFrameCount++;
+        if (frameNanos > mFrameBudgetNanos) {
+            mFramesOverBudgetCount++;
+        }
+        if (frameNanos > mLongestFrameNanos) {
+            mLongestFrameNanos = frameNanos;
+        }
+        long lastFrameTimeNanos = mLastFrameTimeNanos;
+        mLastFrameTimeNanos = frameTimeNanos;
+        if (lastFrameTimeNanos < 0) {
+            return;
+        }
+        long frameGapNanos = frameTimeNanos - lastFrameTimeNanos;
+        if (frameGapNanos > mFrameBudgetNanos * 3 / 2) {
+            mLateFrameCount++;
+        }
+        if (frameGapNanos > mLongestFrameGapNanos) {
+            mLongestFrameGapNanos = frameGapNanos;
+        }
+    }
+
+    /**
+     * Records that drawing was paused, e.g. while the view was not visible, so that the time until
+     * the next frame is not counted as a gap between frames.
+     *
+     * <p>Called from the thread drawing the frames.
+     */
+    void onPaused() {
+        mLastFrameTimeNanos = -1;
+    }
+
+    /**
+     * Logs the stats as histograms, once per start of the animation.
+     *
+     * <p>Called from ui thread.
+     */
+    void log(Context context) {
+        int frameCount = mFrameCount;
+        if (mIsLogged || frameCount == 0) {
+            return;
+        }
+        mIsLogged = true;
+        MetricsLogger.histogram(context, "emergency_count_down_longest_frame_ms",
+                (int) TimeUnit.NANOSECONDS.toMillis(mLongestFrameNanos));
+        MetricsLogger.histogram(context, "emergency_count_down_frames_over_budget_percent",
+                mFramesOverBudgetCount * 100 / frameCount);
+        MetricsLogger.histogram(context, "emergency_count_down_longest_frame_gap_ms",
+                (int) TimeUnit.NANOSECONDS.toMillis(mLongestFrameGapNanos));
+        if (frameCount > 1) {
+            // The first frame has no previous one to be late after.
+            MetricsLogger.histogram(context, "emergency_count_down_late_frames_percent",
+                    mLateFrameCount * 100 / (frameCount - 1));
+        }
+        long firstFrameLatencyNanos = mFirstFrameLatencyNanos;
+        if (firstFrameLatencyNanos >= 0) {
+            MetricsLogger.histogram(context, "emergency_count_down_first_frame_latency_ms",
+                    (int) TimeUnit.NANOSECONDS.toMillis(firstFrameLatencyNanos));
+        }
+    }
+
+    /** Dumps the stats. */
+    void dump(String prefix, PrintWriter pw) {
+        long firstFrameLatencyNanos = mFirstFrameLatencyNanos;
+        pw.print(prefix);
+        pw.print("frames drawn: ");
+        pw.println(mFrameCount);
+        pw.print(prefix);
+        pw.print("frames over budget (");
+        pw.print(TimeUnit.NANOSECONDS.toMicros(mFrameBudgetNanos));
+        pw.print(" us): ");
+        pw.println(mFramesOverBudgetCount);
+        pw.print(prefix);
+        pw.print("longest frame: ");
+        pw.print(TimeUnit.NANOSECONDS.toMicros(mLongestFrameNanos));
+        pw.println(" us");
+        pw.print(prefix);
+        pw.print("late frames (over ");
+        pw.print(TimeUnit.NANOSECONDS.toMicros(mFrameBudgetNanos * 3 / 2));
+        pw.print(" us apart): ");
+        pw.println(mLateFrameCount);
+        pw.print(prefix);
+        pw.print("longest gap between frames: ");
+        pw.print(TimeUnit.NANOSECONDS.toMicros(mLongestFrameGapNanos));
+        pw.println(" us");
+        pw.print(prefix);
+        pw.print("time to first frame: ");
+        pw.println(firstFrameLatencyNanos < 0 ? "n/a"
+                : TimeUnit.NANOSECONDS.toMicros(firstFrameLatencyNanos) + " us");
+    }
+}
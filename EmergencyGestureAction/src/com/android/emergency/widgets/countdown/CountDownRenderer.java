@@ -17,6 +17,7 @@
 package com.android.emergency.widgets.countdown;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -24,31 +25,45 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
 
-import androidx.annotation.GuardedBy;
-
 import com.android.emergency.action.R;
 
-import java.time.Duration;
-
 /**
  * The renderer which renders the text view to show how many seconds left to count down.
+ *
+ * <p>The digits and the unit text are rasterised once per text size into an atlas, so that
+ * drawing the count down only blits a few bitmaps. Where they are drawn is laid out for every
+ * second of the count down when the bounds are updated, so that drawing allocates nothing.
+ *
+ * <p>Only accessed on the thread drawing it: the one of {@link LoopingAnimationThread}, or the ui
+ * thread for {@link RenderThreadCountDownView}.
  */
 public class CountDownRenderer {
 
-    @GuardedBy("this")
-    private final Paint mTimerTextPaint;
+    private static final String[] DIGITS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+    /** Index of the unit text in the glyph atlas, after the ten digits. */
+    private static final int UNIT_GLYPH = 10;
+    private static final int GLYPH_COUNT = 11;
+    /** Transparent pixels around each glyph of the atlas, so that their edges don't bleed. */
+    private static final int GLYPH_PADDING = 1;
 
-    @GuardedBy("this")
+    private final Paint mTimerTextPaint;
     private final Paint mUnitTextPaint;
-
-    @GuardedBy("this")
+    /** Paint tinting the glyphs drawn from the atlas, which only holds their coverage. */
+    private final Paint mGlyphPaint;
     private RectF mBounds = null;
 
-    @GuardedBy("this")
-    private boolean mIsRevealed = false;
+    private Bitmap mGlyphAtlas;
+    /** Timer text size the atlas was rasterised at, or -1 if it was not rasterised yet. */
+    private float mGlyphAtlasTextSize = -1;
+    /** Area of each glyph in the atlas, including padding. */
+    private final Rect[] mGlyphSources = new Rect[GLYPH_COUNT];
+    /** Bounds of each glyph, relative to its origin on the baseline. */
+    private final Rect[] mGlyphBounds = new Rect[GLYPH_COUNT];
 
-    @GuardedBy("this")
-    private Duration mCountDownLeft;
+    /** Layouts of the timer text for every second of the count down, by seconds left. */
+    private final GlyphLayout[] mGlyphLayouts;
+    /** Layout of a timer text beyond the count down duration, laid out when drawn. */
+    private GlyphLayout mExtraGlyphLayout;
 
     private Context mContext;
     private String mSecondUnitText;
@@ -57,75 +72,63 @@ public class CountDownRenderer {
     CountDownRenderer(Context context) {
         mContext = context;
         mTimerTextPaint = new Paint();
-        mTimerTextPaint.setTextAlign(Paint.Align.CENTER);
         mTimerTextPaint.setTypeface(Typeface.SANS_SERIF);
-        mTimerTextPaint.setColor(Color.WHITE);
         mTimerTextPaint.setAntiAlias(true);
         mUnitTextPaint = new Paint();
         mUnitTextPaint.setTypeface(Typeface.SANS_SERIF);
-        mUnitTextPaint.setTextAlign(Paint.Align.CENTER);
-        mUnitTextPaint.setColor(Color.WHITE);
         mUnitTextPaint.setAntiAlias(true);
+        mGlyphPaint = new Paint();
+        mGlyphPaint.setColor(Color.WHITE);
+        for (int glyph = 0; glyph < GLYPH_COUNT; glyph++) {
+            mGlyphSources[glyph] = new Rect();
+            mGlyphBounds[glyph] = new Rect();
+        }
         mSecondUnitText = context.getString(R.string.count_down_unit);
-    }
-
-    /** Shows the count down rendering. */
-    synchronized void show() {
-        mIsRevealed = true;
-    }
-
-    /** Returns true if count down text should be displayed, false otherwise. */
-    synchronized boolean isRevealed() {
-        return mIsRevealed;
+        int countDownMillis =
+                context.getResources().getInteger(R.integer.emergency_action_count_down_millis);
+        mGlyphLayouts = new GlyphLayout[(countDownMillis + 999) / 1000 + 1];
+        for (int seconds = 0; seconds < mGlyphLayouts.length; seconds++) {
+            mGlyphLayouts[seconds] = new GlyphLayout(seconds);
+        }
     }
 
     /**
      * Draws the count down text.
      *
-     * <p>Called from {@link LoopingAnimationThread}.
+     * @param canvas      Canvas to draw on.
+     * @param secondsLeft seconds left to count down, nothing is drawn if negative.
      */
-    synchronized void draw(Canvas canvas) {
-        if (!mIsRevealed || mBounds == null || mCountDownLeft == null) {
+    void draw(Canvas canvas, long secondsLeft) {
+        if (mBounds == null || secondsLeft < 0) {
             return;
         }
 
-        String timerText = Long.toString(mCountDownLeft.getSeconds());
-        RectF timerTextBounds = measureText(timerText, mTimerTextPaint);
-        RectF unitTextBounds = measureText(mSecondUnitText, mUnitTextPaint);
-        // Shift timer text and unit text to share baseline.
-        unitTextBounds.offset(0, timerTextBounds.height() - unitTextBounds.height());
-        // Calculate final text bound that all text will be drawn inside of.
-        RectF finalTextBounds =
-                new RectF(
-                        0,
-                        0,
-                        timerTextBounds.width() + unitTextBounds.width() + mUnitTextLeftMargin,
-                        timerTextBounds.height());
-        // Offset unit text bounds to right of timer text bounds.
-        unitTextBounds.offset(timerTextBounds.width() + mUnitTextLeftMargin, 0);
-
-        // Center final text bounds in provided bounds and place timer text and unit text inside.
-        finalTextBounds.offset(
-                mBounds.left + (mBounds.width() - finalTextBounds.width()) * 0.5f,
-                mBounds.bottom - (mBounds.height() - finalTextBounds.height()));
-        timerTextBounds.offset(finalTextBounds.left, finalTextBounds.top);
-        unitTextBounds.offset(finalTextBounds.left, finalTextBounds.top);
+        int timerSeconds = (int) Math.min(secondsLeft, Integer.MAX_VALUE);
+        GlyphLayout glyphLayout;
+        if (timerSeconds < mGlyphLayouts.length) {
+            glyphLayout = mGlyphLayouts[timerSeconds];
+        } else {
+            // Not expected, as the count down starts from its configured duration.
+            if (mExtraGlyphLayout == null || mExtraGlyphLayout.mSeconds != timerSeconds) {
+                mExtraGlyphLayout = new GlyphLayout(timerSeconds);
+                layoutGlyphs(mExtraGlyphLayout);
+            }
+            glyphLayout = mExtraGlyphLayout;
+        }
 
         // Draw text.
-        canvas.drawText(
-                timerText, timerTextBounds.centerX(), timerTextBounds.bottom, mTimerTextPaint);
-        canvas.drawText(
-                mSecondUnitText, unitTextBounds.centerX(), unitTextBounds.bottom, mUnitTextPaint);
+        for (int i = 0; i < glyphLayout.mGlyphs.length; i++) {
+            canvas.drawBitmap(mGlyphAtlas, mGlyphSources[glyphLayout.mGlyphs[i]],
+                    glyphLayout.mDestinations[i], mGlyphPaint);
+        }
     }
 
-    /**
-     * Sets the bounds text should be drawn in.
-     *
-     * <p>Called from ui thread.
-     */
-    synchronized void updateBounds(RectF loopBounds, float totalDiameter) {
-        this.mBounds =
-                new RectF(loopBounds.left, loopBounds.top, loopBounds.right, loopBounds.bottom);
+    /** Sets the bounds text should be drawn in. */
+    void updateBounds(RectF loopBounds, float totalDiameter) {
+        if (mBounds == null) {
+            mBounds = new RectF();
+        }
+        mBounds.set(loopBounds);
         float textSizeToBoundsRatio =
                 mContext.getResources().getFloat(
                         R.dimen.count_down_view_text_size_to_diameter_ratio);
@@ -139,18 +142,131 @@ public class CountDownRenderer {
         mUnitTextPaint.setTextSize(
                 textSizeToBoundsRatio * unitTextToTimerTextSizeRatio * totalDiameter);
         mUnitTextLeftMargin = unitTextLeftMarginToBoundsRatio * totalDiameter;
+        if (mTimerTextPaint.getTextSize() != mGlyphAtlasTextSize) {
+            buildGlyphAtlas();
+        }
+        // Glyph positions depend on text sizes and bounds.
+        for (GlyphLayout glyphLayout : mGlyphLayouts) {
+            layoutGlyphs(glyphLayout);
+        }
+        mExtraGlyphLayout = null;
     }
 
-    private static RectF measureText(String text, Paint textPaint) {
-        Rect textBounds = new Rect();
-        textPaint.getTextBounds(text, 0, text.length(), textBounds);
-        RectF textBoundsF = new RectF(textBounds);
-        // Readjust text to be aligned to origin as their top left.
-        textBoundsF.offset(-textBounds.left, -textBounds.top);
-        return textBoundsF;
+    /** Rasterises the digits and the unit text at the current text sizes. */
+    private void buildGlyphAtlas() {
+        int atlasWidth = 0;
+        int atlasHeight = 0;
+        for (int glyph = 0; glyph < GLYPH_COUNT; glyph++) {
+            String text = getGlyphText(glyph);
+            Rect bounds = mGlyphBounds[glyph];
+            getGlyphPaint(glyph).getTextBounds(text, 0, text.length(), bounds);
+            mGlyphSources[glyph].set(atlasWidth, 0,
+                    atlasWidth + bounds.width() + 2 * GLYPH_PADDING,
+                    bounds.height() + 2 * GLYPH_PADDING);
+            atlasWidth = mGlyphSources[glyph].right;
+            atlasHeight = Math.max(atlasHeight, mGlyphSources[glyph].bottom);
+        }
+
+        // Only the coverage is kept, the glyph paint gives the color.
+        mGlyphAtlas = Bitmap.createBitmap(atlasWidth, atlasHeight, Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(mGlyphAtlas);
+        for (int glyph = 0; glyph < GLYPH_COUNT; glyph++) {
+            Rect source = mGlyphSources[glyph];
+            Rect bounds = mGlyphBounds[glyph];
+            canvas.drawText(getGlyphText(glyph),
+                    source.left + GLYPH_PADDING - bounds.left,
+                    source.top + GLYPH_PADDING - bounds.top,
+                    getGlyphPaint(glyph));
+        }
+        mGlyphAtlasTextSize = mTimerTextPaint.getTextSize();
+    }
+
+    private String getGlyphText(int glyph) {
+        return glyph == UNIT_GLYPH ? mSecondUnitText : DIGITS[glyph];
+    }
+
+    private Paint getGlyphPaint(int glyph) {
+        return glyph == UNIT_GLYPH ? mUnitTextPaint : mTimerTextPaint;
+    }
+
+    /**
+     * Lays out the glyphs of the timer text and of the unit text so that they share a baseline
+     * and are centered in the bounds.
+     */
+    private void layoutGlyphs(GlyphLayout glyphLayout) {
+        int[] glyphs = glyphLayout.mGlyphs;
+        int digitCount = glyphs.length - 1;
+
+        // Place the digits next to each other, and measure the timer text from their bounds.
+        float timerTextLeft = Float.MAX_VALUE;
+        float timerTextRight = -Float.MAX_VALUE;
+        float timerTextTop = Float.MAX_VALUE;
+        float timerTextBottom = -Float.MAX_VALUE;
+        float origin = 0;
+        for (int i = 0; i < digitCount; i++) {
+            Rect bounds = mGlyphBounds[glyphs[i]];
+            timerTextLeft = Math.min(timerTextLeft, origin + bounds.left);
+            timerTextRight = Math.max(timerTextRight, origin + bounds.right);
+            timerTextTop = Math.min(timerTextTop, bounds.top);
+            timerTextBottom = Math.max(timerTextBottom, bounds.bottom);
+            origin += mTimerTextPaint.measureText(DIGITS[glyphs[i]]);
+        }
+        float timerTextWidth = timerTextRight - timerTextLeft;
+        float timerTextHeight = timerTextBottom - timerTextTop;
+        Rect unitBounds = mGlyphBounds[UNIT_GLYPH];
+
+        // Final text bounds that all text will be drawn inside of, with the unit text to the right
+        // of the timer text.
+        float finalTextWidth = timerTextWidth + unitBounds.width() + mUnitTextLeftMargin;
+        float finalTextLeft = mBounds.left + (mBounds.width() - finalTextWidth) * 0.5f;
+        float finalTextTop = mBounds.bottom - (mBounds.height() - timerTextHeight);
+        int baseline = Math.round(finalTextTop + timerTextHeight);
+
+        // Digits are placed again from the left of the final text bounds.
+        origin = finalTextLeft - timerTextLeft;
+        for (int i = 0; i < digitCount; i++) {
+            placeGlyph(glyphLayout, i, origin, baseline);
+            origin += mTimerTextPaint.measureText(DIGITS[glyphs[i]]);
+        }
+        placeGlyph(glyphLayout, digitCount,
+                finalTextLeft + timerTextWidth + mUnitTextLeftMargin - unitBounds.left, baseline);
+    }
+
+    /** Places the {@code i}th glyph of the layout with its origin at the given position. */
+    private void placeGlyph(GlyphLayout glyphLayout, int i, float origin, int baseline) {
+        // Glyphs are drawn on whole pixels, so that the atlas is not resampled.
+        Rect source = mGlyphSources[glyphLayout.mGlyphs[i]];
+        Rect bounds = mGlyphBounds[glyphLayout.mGlyphs[i]];
+        int left = Math.round(origin) + bounds.left - GLYPH_PADDING;
+        int top = baseline + bounds.top - GLYPH_PADDING;
+        glyphLayout.mDestinations[i].set(
+                left, top, left + source.width(), top + source.height());
     }
 
-    synchronized void setCountDownLeft(Duration timeLeft) {
-        mCountDownLeft = timeLeft;
+    /** Glyphs drawn for one value of the timer, with where they are drawn. */
+    private static final class GlyphLayout {
+        final int mSeconds;
+        /** Digits of the timer text, then the unit text. */
+        final int[] mGlyphs;
+        final Rect[] mDestinations;
+
+        GlyphLayout(int seconds) {
+            mSeconds = seconds;
+            int digitCount = 1;
+            for (int rest = seconds / 10; rest > 0; rest /= 10) {
+                digitCount++;
+            }
+            mGlyphs = new int[digitCount + 1];
+            mDestinations = new Rect[digitCount + 1];
+            int rest = seconds;
+            for (int i = digitCount - 1; i >= 0; i--) {
+                mGlyphs[i] = rest % 10;
+                rest /= 10;
+            }
+            mGlyphs[digitCount] = UNIT_GLYPH;
+            for (int i = 0; i <= digitCount; i++) {
+                mDestinations[i] = new Rect();
+            }
+        }
     }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.emergency.widgets.countdown;
+
+import androidx.annotation.UiThread;
+
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * A view showing the looping count down animation, with optional count down text.
+ *
+ * <p>Implemented by {@link CountDownAnimationView}, which draws the animation from its own thread,
+ * and by {@link RenderThreadCountDownView}, which lets the render thread animate it.
+ */
+@UiThread
+public interface CountDownView {
+
+    /** Starts the animation, counting down from {@code countDownDuration}. */
+    void start(Duration countDownDuration);
+
+    /** Starts rendering count down text that is set with {@link #setCountDownLeft}. */
+    void showCountDown();
+
+    /** Sets the count down to be rendered. */
+    void setCountDownLeft(Duration timeLeft);
+
+    /** Stops the animation. */
+    void stop();
+
+    /** Dumps the state of the animation. */
+    void dump(String prefix, PrintWriter pw);
+}
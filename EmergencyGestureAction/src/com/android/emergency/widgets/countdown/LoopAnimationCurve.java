@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.emergency.widgets.countdown;
+
+import android.animation.TimeInterpolator;
+import android.view.animation.DecelerateInterpolator;
+
+/**
+ * Lookup tables of the looping animation, so that frames don't evaluate the interpolator and
+ * trigonometric functions.
+ *
+ * <p>The angles of the tail and of the head of the loop are sampled once per frame interval over
+ * the loop interval, and interpolated linearly in between. Angles are in degrees, clockwise from
+ * the start of the track.
+ */
+final class LoopAnimationCurve {
+
+    /** Cosines of each whole degree from 0 to 360, interpolated linearly in between. */
+    private static final float[] COSINES = new float[361];
+
+    static {
+        for (int degrees = 0; degrees < COSINES.length; degrees++) {
+            COSINES[degrees] = (float) Math.cos(Math.toRadians(degrees));
+        }
+    }
+
+    private final long mSampleIntervalNanos;
+    private final float[] mTailAngles;
+    private final float[] mHeadAngles;
+
+    /**
+     * @param loopIntervalNanos   time it takes the loop to run one cycle.
+     * @param loopTrailDelayNanos delay between the head and the tail of the loop.
+     * @param sampleIntervalNanos time between two samples, e.g. the frame interval.
+     */
+    LoopAnimationCurve(long loopIntervalNanos, long loopTrailDelayNanos,
+            long sampleIntervalNanos) {
+        TimeInterpolator decelerateInterpolator = new DecelerateInterpolator();
+        // Time it takes each end of the loop to run along the track.
+        long loopTrackIntervalNanos = loopIntervalNanos - loopTrailDelayNanos;
+        mSampleIntervalNanos = sampleIntervalNanos;
+        // One more sample than needed to reach the end of the loop, to interpolate up to it.
+        int sampleCount = (int) (loopIntervalNanos / sampleIntervalNanos) + 2;
+        mTailAngles = new float[sampleCount];
+        mHeadAngles = new float[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            long loopHeadT = Math.min(i * sampleIntervalNanos, loopIntervalNanos);
+            long loopTailT = loopHeadT - loopTrailDelayNanos;
+
+            // 0 means track start, 1 means track end.
+
+            float loopTailTrackRatio =
+                    loopTailT <= 0 ? 0f : loopTailT / (float) loopTrackIntervalNanos;
+            float loopHeadTrackRatio =
+                    loopHeadT <= loopTrackIntervalNanos
+                            ? loopHeadT / (float) loopTrackIntervalNanos
+                            : 1f;
+            // Interpolate and convert track completion ratio to degrees.
+            mTailAngles[i] = decelerateInterpolator.getInterpolation(loopTailTrackRatio) * 360f;
+            mHeadAngles[i] = decelerateInterpolator.getInterpolation(loopHeadTrackRatio) * 360f;
+        }
+    }
+
+    /** Returns the angle of the tail of the loop, {@code loopPhaseNanos} into a cycle. */
+    float getTailAngle(long loopPhaseNanos) {
+        return lookUp(mTailAngles, loopPhaseNanos);
+    }
+
+    /** Returns the angle of the head of the loop, {@code loopPhaseNanos} into a cycle. */
+    float getHeadAngle(long loopPhaseNanos) {
+        return lookUp(mHeadAngles, loopPhaseNanos);
+    }
+
+    private float lookUp(float[] samples, long loopPhaseNanos) {
+        long index = loopPhaseNanos / mSampleIntervalNanos;
+        if (index >= samples.length - 1) {
+            return samples[samples.length - 1];
+        }
+        int i = (int) index;
+        float fraction =
+                (loopPhaseNanos - index * mSampleIntervalNanos) / (float) mSampleIntervalNanos;
+        return samples[i] + (samples[i + 1] - samples[i]) * fraction;
+    }
+
+    /** Returns the cosine of {@code degrees}, which must be in [-360, 360]. */
+    static float cos(float degrees) {
+        float position = Math.abs(degrees);
+        int i = Math.min((int) position, COSINES.length - 2);
+        return COSINES[i] + (COSINES[i + 1] - COSINES[i]) * (position - i);
+    }
+
+    /** Returns the sine of {@code degrees}, which must be in [-360, 360]. */
+    static float sin(float degrees) {
+        // sin(x) = cos(x - 90), brought back in range.
+        float shifted = degrees - 90f;
+        return cos(shifted < -360f ? shifted + 360f : shifted);
+    }
+}
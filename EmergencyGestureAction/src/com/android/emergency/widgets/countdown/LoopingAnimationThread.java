@@ -17,66 +17,91 @@
 package com.android.emergency.widgets.countdown;
 
 
-import android.animation.TimeInterpolator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.PorterDuff;
 import android.graphics.RectF;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.Surface;
 import android.view.SurfaceHolder;
-import android.view.animation.DecelerateInterpolator;
 
-import androidx.annotation.GuardedBy;
+import androidx.annotation.VisibleForTesting;
 
 import com.android.emergency.action.R;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Thread that handles the looping "pending" animation with optional count down text.
+ *
+ * <p>Frames are drawn from {@link Choreographer} callbacks on the looper of this thread, at most
+ * at the rate of {@code R.integer.count_down_view_frame_rate}. Unless disabled by
+ * {@code R.bool.count_down_view_use_hardware_canvas}, they are drawn on a hardware accelerated
+ * canvas, falling back to a software canvas if the surface does not support it.
+ *
+ * <p>The ui thread publishes what to draw as an immutable {@link FrameState}, which each frame
+ * reads once: neither thread ever waits for the other. Everything derived from it, like the loop
+ * geometry and the paints, is only accessed on the thread drawing the frames.
  */
-final class LoopingAnimationThread extends Thread {
+final class LoopingAnimationThread extends Thread implements Choreographer.FrameCallback {
+
+    private static final String TAG = "LoopingAnimationThread";
 
     private final SurfaceHolder mSurfaceHolder;
     private final Context mContext;
     private final Paint mBackgroundPaint;
     private final Paint mLoopPaint;
     private final Paint mLoopHeadPaint;
-    private final TimeInterpolator mDecelerateInterpolator = new DecelerateInterpolator();
-    private final Duration mLoopInterval;
-    private final Duration mLoopTrailDelay;
+    /** Minimum time between two frames, in nanoseconds. */
+    private final long mFrameIntervalNanos;
+    private final float mFrameRate;
+    private final long mLoopIntervalNanos;
+    private final LoopAnimationCurve mLoopAnimationCurve;
+    private final CountDownFrameStats mFrameStats;
 
-    private volatile boolean mIsDrawing = false;
+    private volatile boolean mIsDrawing = true;
+    private volatile boolean mIsPaused = false;
+    private volatile Looper mLooper;
+    private volatile Choreographer mChoreographer;
 
-    @GuardedBy("this")
-    private RectF mLoopBounds;
+    // Only accessed on this thread.
+    private boolean mUseHardwareCanvas;
+    private long mStartTimeNanos;
+    private long mLastFrameTimeNanos;
 
-    @GuardedBy("this")
-    private float mLoopRadius;
+    private final AtomicReference<FrameState> mFrameState =
+            new AtomicReference<>(FrameState.INITIAL);
 
-    @GuardedBy("this")
-    private float mLoopHeadRadius;
-
-    @GuardedBy("this")
+    // Only accessed on the thread drawing the frames.
+    private final RectF mLoopBounds = new RectF();
     private final CountDownRenderer mCountDownRenderer;
-
-    @GuardedBy("this")
-    private int mTotalDiameter;
+    private float mLoopRadius;
+    private float mLoopHeadRadius;
+    /** Surface size the loop geometry was computed for, or -1 if it was not computed yet. */
+    private int mLayoutWidth = -1;
+    private int mLayoutHeight = -1;
 
     /**
      * Constructor for looping animation thread.
      *
      * @param surfaceHolder Surface holder from surface view.
      * @param context       The context from the view.
+     * @param frameStats    Stats recording the frames posted.
      */
     LoopingAnimationThread(
             SurfaceHolder surfaceHolder,
-            Context context) {
+            Context context,
+            CountDownFrameStats frameStats) {
         super(LoopingAnimationThread.class.getSimpleName());
         this.mSurfaceHolder = surfaceHolder;
         mContext = context;
+        mFrameStats = frameStats;
         mBackgroundPaint = new Paint();
         mBackgroundPaint.setColor(Color.BLACK);
         mBackgroundPaint.setStyle(Paint.Style.FILL);
@@ -92,97 +117,162 @@ final class LoopingAnimationThread extends Thread {
 
         mCountDownRenderer = new CountDownRenderer(context);
 
-        mLoopInterval = Duration.ofMillis(
+        mUseHardwareCanvas =
+                mContext.getResources().getBoolean(R.bool.count_down_view_use_hardware_canvas);
+        mFrameRate = mContext.getResources().getInteger(R.integer.count_down_view_frame_rate);
+        mFrameIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / mFrameRate);
+        mLoopIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
                 mContext.getResources().getInteger(R.integer.count_down_view_loop_interval_millis));
-        mLoopTrailDelay = Duration.ofMillis(
+        long loopTrailDelayNanos = TimeUnit.MILLISECONDS.toNanos(
                 mContext.getResources().getInteger(R.integer.count_down_view_loop_delay_millis));
+        // Sampled at the frame rate, as frames are never drawn closer than that.
+        mLoopAnimationCurve = new LoopAnimationCurve(
+                mLoopIntervalNanos, loopTrailDelayNanos, mFrameIntervalNanos);
     }
 
     @Override
     public void run() {
-        mIsDrawing = true;
-        Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+        Looper.prepare();
+        mLooper = Looper.myLooper();
+        // Checked after publishing the looper, so that either this thread sees the request to stop
+        // or stopDrawing() quits the looper.
+        if (!mIsDrawing) {
+            return;
+        }
+        mStartTimeNanos = System.nanoTime();
+        mLastFrameTimeNanos = 0;
         updateSize(
                 mSurfaceHolder.getSurfaceFrame().width(),
                 mSurfaceHolder.getSurfaceFrame().height());
-        while (mIsDrawing) {
-            if (isInterrupted()) {
-                mIsDrawing = false;
-                return;
+        // Let the display run at a rate the animation is drawn at.
+        Surface surface = mSurfaceHolder.getSurface();
+        if (surface.isValid()) {
+            surface.setFrameRate(mFrameRate, Surface.FRAME_RATE_COMPATIBILITY_DEFAULT);
+        }
+        mChoreographer = Choreographer.getInstance();
+        if (!mIsPaused) {
+            mChoreographer.postFrameCallback(this);
+        }
+        Looper.loop();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mIsDrawing || isInterrupted()) {
+            mIsDrawing = false;
+            mLooper.quit();
+            return;
+        }
+        if (mIsPaused) {
+            // setPaused(false) posts the next frame, which is not late after this one.
+            mFrameStats.onPaused();
+            return;
+        }
+        // Removed first, so that a callback posted twice by racing resumes only runs once.
+        mChoreographer.removeFrameCallback(this);
+        mChoreographer.postFrameCallback(this);
+        // Skip vsyncs that come faster than the target frame rate, allowing for some jitter.
+        if (frameTimeNanos - mLastFrameTimeNanos < mFrameIntervalNanos * 3 / 4) {
+            return;
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        long frameStartNanos = System.nanoTime();
+        Canvas canvas = null;
+        try {
+            // The surface holder is locked until the canvas is posted.
+            canvas = lockCanvas();
+            if (canvas != null) {
+                // The first vsync may predate the start of the animation.
+                drawFrame(canvas, Math.max(0, frameTimeNanos - mStartTimeNanos));
+            }
+        } finally {
+            // Make sure we don't leave the Surface in an inconsistent state.
+            if (canvas != null) {
+                mSurfaceHolder.unlockCanvasAndPost(canvas);
+                mFrameStats.onFramePosted(frameTimeNanos, frameStartNanos, System.nanoTime());
             }
-            Canvas canvas = null;
+        }
+    }
+
+    /**
+     * Locks the canvas of the surface, or returns null if the surface is not available.
+     */
+    private Canvas lockCanvas() {
+        if (mUseHardwareCanvas) {
             try {
-                synchronized (mSurfaceHolder) {
-                    canvas = mSurfaceHolder.lockCanvas(null);
-                    draw(canvas, now);
-                }
-            } finally {
-                // Make sure we don't leave the Surface in an inconsistent state.
-                if (canvas != null) {
-                    mSurfaceHolder.unlockCanvasAndPost(canvas);
-                }
+                return mSurfaceHolder.lockHardwareCanvas();
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                // Stick to the software canvas for the rest of the animation.
+                Log.w(TAG, "Hardware canvas unavailable, falling back to software canvas", e);
+                mUseHardwareCanvas = false;
             }
         }
+        return mSurfaceHolder.lockCanvas(null);
+    }
+
+    /**
+     * Pauses drawing, e.g. while the view is not visible, or resumes it.
+     *
+     * <p>Called from ui thread.
+     */
+    void setPaused(boolean paused) {
+        if (mIsPaused == paused) {
+            return;
+        }
+        mIsPaused = paused;
+        Choreographer choreographer = mChoreographer;
+        if (!paused && choreographer != null) {
+            choreographer.removeFrameCallback(this);
+            choreographer.postFrameCallback(this);
+        }
     }
 
     /**
      * Reveals the count down if animation started, otherwise count down will show when animation
      * starts.
      */
-    synchronized void showCountDown() {
-        mCountDownRenderer.show();
+    void showCountDown() {
+        mFrameState.updateAndGet(FrameState::withCountDownRevealed);
     }
 
     /** Sets the count down left duration to be drawn. */
-    synchronized void setCountDownLeft(Duration timeLeft) {
-        if (timeLeft.isNegative() || timeLeft.isZero()) {
-            mCountDownRenderer.setCountDownLeft(Duration.ZERO);
-        } else {
-            mCountDownRenderer.setCountDownLeft(timeLeft);
-        }
+    void setCountDownLeft(Duration timeLeft) {
+        long secondsLeft =
+                timeLeft.isNegative() || timeLeft.isZero() ? 0 : timeLeft.getSeconds();
+        mFrameState.updateAndGet(state -> state.withSecondsLeft(secondsLeft));
     }
 
     /**
      * Draw frame.
      *
-     * @param canvas    Canvas to draw on.
-     * @param startTime start time of animation.
+     * <p>Nothing is allocated here, as this runs for every frame while the alarm is active, except
+     * when laying out for a new surface size.
+     *
+     * @param canvas          Canvas to draw on.
+     * @param progressedNanos time since the start of the animation, in nanoseconds.
      */
-    private synchronized void draw(Canvas canvas, Instant startTime) {
+    @VisibleForTesting
+    void drawFrame(Canvas canvas, long progressedNanos) {
         if (!mIsDrawing) {
             // It is possible to lose the canvas because surface got destroyed here.
             return;
         }
+        FrameState state = mFrameState.get();
+        if (state.mWidth != mLayoutWidth || state.mHeight != mLayoutHeight) {
+            layout(state.mWidth, state.mHeight);
+        }
         // Clear background.
         canvas.drawColor(0, PorterDuff.Mode.CLEAR);
         // Draw background.
         canvas.drawCircle(mLoopBounds.centerX(), mLoopBounds.centerY(), mLoopRadius,
                 mBackgroundPaint);
 
-        // Calculate each end of the loop's elapsed time for calculating what arc to draw.
-
-        long progressedMillis =
-                Duration.between(
-                        startTime, Instant.ofEpochMilli(System.currentTimeMillis())).toMillis();
-        long loopHeadT = progressedMillis % mLoopInterval.toMillis();
-        long loopTailT = loopHeadT - mLoopTrailDelay.toMillis();
-
-        // 0 means track start, 1 means track end.
-
-        Duration loopTrackInterval = mLoopInterval.minus(mLoopTrailDelay);
-        float loopTailTrackRatio =
-                loopTailT <= 0f ? 0f : loopTailT / (float) loopTrackInterval.toMillis();
-        float loopHeadTrackRatio =
-                loopHeadT <= loopTrackInterval.toMillis()
-                        ? loopHeadT / (float) loopTrackInterval.toMillis()
-                        : 1f;
-        // Interpolate and convert track completion ratio to degrees. From a clockwise perspective,
-        // tail is starting angle and head is the ending angle so we intentionally swap terminology
-        // here.
-        float interpolatedSweepAngleStart =
-                mDecelerateInterpolator.getInterpolation(loopTailTrackRatio) * 360f;
-        float interpolatedSweepAngleEnd = mDecelerateInterpolator.getInterpolation(
-                loopHeadTrackRatio) * 360f;
+        // Look up where each end of the loop is on the track, to know what arc to draw. From a
+        // clockwise perspective, tail is starting angle and head is the ending angle so we
+        // intentionally swap terminology here.
+        long loopPhaseNanos = progressedNanos % mLoopIntervalNanos;
+        float interpolatedSweepAngleStart = mLoopAnimationCurve.getTailAngle(loopPhaseNanos);
+        float interpolatedSweepAngleEnd = mLoopAnimationCurve.getHeadAngle(loopPhaseNanos);
         float finalSweepAngleStart = interpolatedSweepAngleStart - 90f;
         float finalSweepAngleEnd = interpolatedSweepAngleEnd - 90f;
         canvas.drawArc(
@@ -192,19 +282,26 @@ final class LoopingAnimationThread extends Thread {
                 false,
                 mLoopPaint);
         float leadingDotX =
-                (float) Math.cos(Math.toRadians(finalSweepAngleEnd)) * mLoopRadius
+                LoopAnimationCurve.cos(finalSweepAngleEnd) * mLoopRadius
                         + mLoopBounds.centerX();
         float leadingDotY =
-                (float) Math.sin(Math.toRadians(finalSweepAngleEnd)) * mLoopRadius
+                LoopAnimationCurve.sin(finalSweepAngleEnd) * mLoopRadius
                         + mLoopBounds.centerY();
         canvas.drawCircle(leadingDotX, leadingDotY, mLoopHeadRadius, mLoopHeadPaint);
-        if (mCountDownRenderer.isRevealed()) {
-            mCountDownRenderer.draw(canvas);
+        if (state.mIsCountDownRevealed) {
+            mCountDownRenderer.draw(canvas, state.mSecondsLeft);
         }
     }
 
     /** Update size of loop based on new width and height. */
-    synchronized void updateSize(int w, int h) {
+    void updateSize(int w, int h) {
+        mFrameState.updateAndGet(state -> state.withSize(w, h));
+    }
+
+    /** Computes the loop geometry for a surface of {@code w} by {@code h} pixels. */
+    private void layout(int w, int h) {
+        mLayoutWidth = w;
+        mLayoutHeight = h;
         float lookTrackDiameterToBoundsRatio =
                 mContext.getResources().getFloat(
                         R.dimen.count_down_view_loop_track_diameter_to_bounds_ratio);
@@ -215,25 +312,63 @@ final class LoopingAnimationThread extends Thread {
                 mContext.getResources().getFloat(
                         R.dimen.count_down_view_loop_stoke_width_to_bounds_ratio);
 
-        mTotalDiameter = Math.min(w, h);
+        int totalDiameter = Math.min(w, h);
         // Use ratios to calculate loop/track radius.
-        mLoopRadius = mTotalDiameter * lookTrackDiameterToBoundsRatio * 0.5f;
+        mLoopRadius = totalDiameter * lookTrackDiameterToBoundsRatio * 0.5f;
         // Use ratios to calculate loop head radius.
-        mLoopHeadRadius = mTotalDiameter * lookHeadDiameterToBoundsRatio * 0.5f;
+        mLoopHeadRadius = totalDiameter * lookHeadDiameterToBoundsRatio * 0.5f;
         // Use ratios to calculate loop stroke width.
-        mLoopPaint.setStrokeWidth(mTotalDiameter * lookStrokeWidthToBoundsRatio);
-        mLoopBounds = new RectF(0, 0, mLoopRadius * 2, mLoopRadius * 2);
+        mLoopPaint.setStrokeWidth(totalDiameter * lookStrokeWidthToBoundsRatio);
+        mLoopBounds.set(0, 0, mLoopRadius * 2, mLoopRadius * 2);
         float updatedSizeCenterOffsetX = (w - (mLoopRadius + mLoopHeadRadius) * 2) * 0.5f;
         float updatedSizeCenterOffsetY = (h - (mLoopRadius + mLoopHeadRadius) * 2) * 0.5f;
         mLoopBounds.offset(
                 updatedSizeCenterOffsetX + mLoopHeadRadius,
                 updatedSizeCenterOffsetY + mLoopHeadRadius);
         // Update bounds for count down text.
-        mCountDownRenderer.updateBounds(mLoopBounds, mTotalDiameter);
+        mCountDownRenderer.updateBounds(mLoopBounds, totalDiameter);
     }
 
-    /** Stop animation from drawing. */
+    /** Stop animation from drawing, and let the thread finish. */
     void stopDrawing() {
         mIsDrawing = false;
+        Looper looper = mLooper;
+        if (looper != null) {
+            looper.quit();
+        }
+    }
+
+    /** What the ui thread asks to draw. Instances are immutable, so frames can share them. */
+    private static final class FrameState {
+        static final FrameState INITIAL = new FrameState(0, 0, false, -1);
+
+        final int mWidth;
+        final int mHeight;
+        final boolean mIsCountDownRevealed;
+        /** Seconds left to count down, or -1 if not set yet. */
+        final long mSecondsLeft;
+
+        private FrameState(int width, int height, boolean isCountDownRevealed, long secondsLeft) {
+            mWidth = width;
+            mHeight = height;
+            mIsCountDownRevealed = isCountDownRevealed;
+            mSecondsLeft = secondsLeft;
+        }
+
+        FrameState withSize(int width, int height) {
+            return width == mWidth && height == mHeight ? this
+                    : new FrameState(width, height, mIsCountDownRevealed, mSecondsLeft);
+        }
+
+        FrameState withCountDownRevealed() {
+            return mIsCountDownRevealed ? this
+                    : new FrameState(mWidth, mHeight, true, mSecondsLeft);
+        }
+
+        FrameState withSecondsLeft(long secondsLeft) {
+            // The count down is set every few milliseconds, but only changes once per second.
+            return secondsLeft == mSecondsLeft ? this
+                    : new FrameState(mWidth, mHeight, mIsCountDownRevealed, secondsLeft);
+        }
     }
 }
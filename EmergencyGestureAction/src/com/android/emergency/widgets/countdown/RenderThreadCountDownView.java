@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.emergency.widgets.countdown;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+import android.graphics.drawable.AnimatedVectorDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.android.emergency.action.R;
+
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Alternative to {@link CountDownAnimationView} where the looping animation is an
+ * {@link AnimatedVectorDrawable}, which the render thread animates without running application
+ * code for each frame. The view itself is only drawn again when the count down text changes, once
+ * per second.
+ */
+public class RenderThreadCountDownView extends View implements CountDownView {
+
+    private final AnimatedVectorDrawable mLoopDrawable;
+    private final CountDownRenderer mCountDownRenderer;
+    private final CountDownContentDescription mContentDescription;
+    private final float mLoopTrackDiameterToBoundsRatio;
+    private final RectF mLoopBounds = new RectF();
+    private boolean mIsStarted;
+    private boolean mShowCountDown;
+    /** Seconds left to count down, or -1 if not set yet. */
+    private long mSecondsLeft = -1;
+
+    public RenderThreadCountDownView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        mLoopDrawable = (AnimatedVectorDrawable) context.getDrawable(
+                R.drawable.count_down_loop_animation);
+        mLoopDrawable.setCallback(this);
+        mCountDownRenderer = new CountDownRenderer(context);
+        mContentDescription = new CountDownContentDescription(this);
+        mLoopTrackDiameterToBoundsRatio = context.getResources().getFloat(
+                R.dimen.count_down_view_loop_track_diameter_to_bounds_ratio);
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mLoopDrawable || super.verifyDrawable(who);
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        // Pauses the animation while it can't be seen.
+        mLoopDrawable.setVisible(isVisible, false /* restart */);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // Same geometry as the loop drawn by LoopingAnimationThread.
+        int totalDiameter = Math.min(w, h);
+        int left = (w - totalDiameter) / 2;
+        int top = (h - totalDiameter) / 2;
+        mLoopDrawable.setBounds(left, top, left + totalDiameter, top + totalDiameter);
+        float loopRadius = totalDiameter * mLoopTrackDiameterToBoundsRatio * 0.5f;
+        mLoopBounds.set(w * 0.5f - loopRadius, h * 0.5f - loopRadius,
+                w * 0.5f + loopRadius, h * 0.5f + loopRadius);
+        mCountDownRenderer.updateBounds(mLoopBounds, totalDiameter);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        mLoopDrawable.draw(canvas);
+        if (mShowCountDown) {
+            mCountDownRenderer.draw(canvas, mSecondsLeft);
+        }
+    }
+
+    @Override
+    public void start(Duration countDownDuration) {
+        if (mIsStarted) {
+            return;
+        }
+
+        mIsStarted = true;
+        setCountDownLeft(countDownDuration);
+        mLoopDrawable.start();
+    }
+
+    @Override
+    public void showCountDown() {
+        if (!mShowCountDown) {
+            mShowCountDown = true;
+            invalidate();
+        }
+    }
+
+    @Override
+    public void setCountDownLeft(Duration timeLeft) {
+        long secondsLeft =
+                timeLeft.isNegative() || timeLeft.isZero() ? 0 : timeLeft.getSeconds();
+        if (secondsLeft == mSecondsLeft) {
+            return;
+        }
+        mSecondsLeft = secondsLeft;
+        mContentDescription.update(secondsLeft);
+        if (mShowCountDown) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void stop() {
+        mIsStarted = false;
+        mLoopDrawable.stop();
+    }
+
+    @Override
+    public void dump(String prefix, PrintWriter pw) {
+        pw.print(prefix);
+        pw.println("RenderThreadCountDownView:");
+        pw.print(prefix);
+        pw.print("  started: ");
+        pw.println(mIsStarted);
+        pw.print(prefix);
+        pw.print("  loop running: ");
+        pw.println(mLoopDrawable.isRunning());
+    }
+}
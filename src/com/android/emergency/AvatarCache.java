@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.AsyncTask;
+import android.os.Looper;
+import android.util.AtomicFile;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.android.internal.annotations.VisibleForTesting;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Memory and disk cache of the circular avatars drawn by {@link CircleFramedDrawable}.
+ *
+ * <p>Avatars are keyed by an identity of their source known before it is decoded, and by their
+ * size. A contact photo is identified by its data row and the time its contact was last updated,
+ * so that a changed photo never returns a stale avatar. A user icon is identified by its user,
+ * whose avatars are dropped by {@link #invalidateUserAvatars} when the icon changes.
+ *
+ * <p>Contact avatars are also stored on disk, so that they outlive the process. The disk is only
+ * read by lookups made off the main thread, and only written on a background thread. User
+ * avatars are kept in memory only: a user icon changed while the process was not running could
+ * not be told apart from the one stored.
+ */
+public class AvatarCache {
+    private static final String TAG = "AvatarCache";
+
+    /** Directory of {@link Context#getCacheDir()} holding the avatars. */
+    @VisibleForTesting
+    static final String DIRECTORY_NAME = "avatars";
+    /** Maximum number of bytes of avatars kept in memory. */
+    private static final int MAX_MEMORY_BYTES = 2 * 1024 * 1024;
+    /** Maximum number of avatars kept on disk. */
+    @VisibleForTesting
+    static final int MAX_DISK_FILES = 64;
+    private static final String FILE_EXTENSION = ".png";
+
+    private static AvatarCache sInstance;
+
+    private final File mDirectory;
+    private final Executor mDiskExecutor;
+    private final LruCache<String, Bitmap> mAvatars = new LruCache<String, Bitmap>(
+            MAX_MEMORY_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap avatar) {
+            return avatar.getAllocationByteCount();
+        }
+    };
+
+    /** Returns the cache shared by the whole process. */
+    public static synchronized AvatarCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new AvatarCache(new File(context.getCacheDir(), DIRECTORY_NAME),
+                    AsyncTask.SERIAL_EXECUTOR);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    AvatarCache(File directory, Executor diskExecutor) {
+        mDirectory = directory;
+        mDiskExecutor = diskExecutor;
+    }
+
+    /**
+     * Returns the avatar of the contact photo stored in the data row {@code photoId}, for a
+     * contact last updated at {@code lastUpdatedTimestamp}. {@code photo} is only framed if the
+     * avatar is neither in memory nor, when not called on the main thread, on disk.
+     */
+    public CircleFramedDrawable getContactAvatar(long photoId, long lastUpdatedTimestamp,
+            Bitmap photo, int size) {
+        final String key = getContactKey(photoId, lastUpdatedTimestamp, size);
+        Bitmap avatar = mAvatars.get(key);
+        if (avatar == null && Looper.myLooper() != Looper.getMainLooper()) {
+            avatar = readFile(key);
+            if (avatar != null) {
+                mAvatars.put(key, avatar);
+            }
+        }
+        if (avatar == null) {
+            avatar = CircleFramedDrawable.createFramedBitmap(photo, size);
+            mAvatars.put(key, avatar);
+            final Bitmap newAvatar = avatar;
+            mDiskExecutor.execute(() -> {
+                writeFile(key, newAvatar);
+                // Avatars of previous versions of the contact can't be requested anymore.
+                deleteOtherFiles(getContactPrefix(photoId), key + FILE_EXTENSION);
+            });
+        }
+        return CircleFramedDrawable.wrap(avatar);
+    }
+
+    /**
+     * Caches {@code avatar}, a contact photo previously framed by {@link #getContactAvatar}, e.g.
+     * after it was read back from storage.
+     */
+    public void putContactAvatar(long photoId, long lastUpdatedTimestamp, Bitmap avatar) {
+        mAvatars.put(getContactKey(photoId, lastUpdatedTimestamp, avatar.getWidth()), avatar);
+    }
+
+    /**
+     * Returns the avatar of the icon of the user {@code userId}. {@code iconLoader} is only called
+     * if the avatar is not cached.
+     */
+    public CircleFramedDrawable getUserAvatar(int userId, Supplier<Bitmap> iconLoader,
+            int size) {
+        return getAvatar(getUserPrefix(userId) + size, iconLoader, size);
+    }
+
+    /** Drops the avatars of the user {@code userId}, e.g. after their icon was changed. */
+    public void invalidateUserAvatars(int userId) {
+        final String prefix = getUserPrefix(userId);
+        for (String key : mAvatars.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                mAvatars.remove(key);
+            }
+        }
+    }
+
+    private CircleFramedDrawable getAvatar(String key, Supplier<Bitmap> sourceLoader, int size) {
+        Bitmap avatar = mAvatars.get(key);
+        if (avatar == null) {
+            avatar = CircleFramedDrawable.createFramedBitmap(sourceLoader.get(), size);
+            mAvatars.put(key, avatar);
+        }
+        return CircleFramedDrawable.wrap(avatar);
+    }
+
+    private Bitmap readFile(String key) {
+        File file = new File(mDirectory, key + FILE_EXTENSION);
+        if (!file.exists()) {
+            return null;
+        }
+        Bitmap avatar = BitmapFactory.decodeFile(file.getPath());
+        if (avatar == null) {
+            Log.w(TAG, "Unable to decode avatar " + key);
+        }
+        return avatar;
+    }
+
+    private void writeFile(String key, Bitmap avatar) {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            Log.w(TAG, "Unable to create " + mDirectory);
+            return;
+        }
+        AtomicFile file = new AtomicFile(new File(mDirectory, key + FILE_EXTENSION));
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            avatar.compress(Bitmap.CompressFormat.PNG, 100 /* quality */, out);
+            file.finishWrite(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write avatar " + key, e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+        }
+    }
+
+    /**
+     * Deletes the files starting with {@code prefix} but {@code keptFileName}, then the least
+     * recently written files beyond {@link #MAX_DISK_FILES}.
+     */
+    private void deleteOtherFiles(String prefix, String keptFileName) {
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        int fileCount = files.length;
+        for (File file : files) {
+            String fileName = file.getName();
+            if (fileName.startsWith(prefix) && !fileName.equals(keptFileName) && file.delete()) {
+                fileCount--;
+            }
+        }
+        if (fileCount <= MAX_DISK_FILES) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (fileCount <= MAX_DISK_FILES) {
+                break;
+            }
+            if (!file.getName().equals(keptFileName) && file.delete()) {
+                fileCount--;
+            }
+        }
+    }
+
+    private static String getContactKey(long photoId, long lastUpdatedTimestamp, int size) {
+        return getContactPrefix(photoId) + lastUpdatedTimestamp + "_" + size;
+    }
+
+    private static String getContactPrefix(long photoId) {
+        return "contact_" + photoId + "_";
+    }
+
+    private static String getUserPrefix(int userId) {
+        return "user_" + userId + "_";
+    }
+}
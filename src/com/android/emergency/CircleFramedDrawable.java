@@ -38,7 +38,6 @@ public class CircleFramedDrawable extends Drawable {
 
     private final Bitmap mBitmap;
     private final int mSize;
-    private final Paint mPaint;
 
     private float mScale;
     private Rect mSrcRect;
@@ -53,18 +52,39 @@ public class CircleFramedDrawable extends Drawable {
     }
 
     public CircleFramedDrawable(Bitmap icon, int size) {
+        this(createFramedBitmap(icon, size));
+    }
+
+    /**
+     * Wraps {@code framedBitmap}, a bitmap previously returned by {@link #createFramedBitmap} or
+     * {@link #getBitmap}, without compositing it again.
+     */
+    public static CircleFramedDrawable wrap(Bitmap framedBitmap) {
+        return new CircleFramedDrawable(framedBitmap);
+    }
+
+    private CircleFramedDrawable(Bitmap framedBitmap) {
         super();
-        mSize = size;
+        mBitmap = framedBitmap;
+        mSize = framedBitmap.getWidth();
 
-        mBitmap = Bitmap.createBitmap(mSize, mSize, Bitmap.Config.ARGB_8888);
-        final Canvas canvas = new Canvas(mBitmap);
+        mScale = 1f;
+
+        mSrcRect = new Rect(0, 0, mSize, mSize);
+        mDstRect = new RectF(0, 0, mSize, mSize);
+    }
+
+    /** Returns {@code icon} clipped to a circle of {@code size} pixels. */
+    public static Bitmap createFramedBitmap(Bitmap icon, int size) {
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
 
         final int width = icon.getWidth();
         final int height = icon.getHeight();
         final int square = Math.min(width, height);
 
         final Rect cropRect = new Rect((width - square) / 2, (height - square) / 2, square, square);
-        final RectF circleRect = new RectF(0f, 0f, mSize, mSize);
+        final RectF circleRect = new RectF(0f, 0f, size, size);
 
         final Path fillPath = new Path();
         fillPath.addArc(circleRect, 0f, 360f);
@@ -72,23 +92,22 @@ public class CircleFramedDrawable extends Drawable {
         canvas.drawColor(0, PorterDuff.Mode.CLEAR);
 
         // opaque circle matte
-        mPaint = new Paint();
-        mPaint.setAntiAlias(true);
-        mPaint.setColor(Color.BLACK);
-        mPaint.setStyle(Paint.Style.FILL);
-        canvas.drawPath(fillPath, mPaint);
+        final Paint paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setColor(Color.BLACK);
+        paint.setStyle(Paint.Style.FILL);
+        canvas.drawPath(fillPath, paint);
 
         // mask in the icon where the bitmap is opaque
-        mPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_IN));
-        canvas.drawBitmap(icon, cropRect, circleRect, mPaint);
+        paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_IN));
+        canvas.drawBitmap(icon, cropRect, circleRect, paint);
 
-        // prepare paint for frame drawing
-        mPaint.setXfermode(null);
-
-        mScale = 1f;
+        return bitmap;
+    }
 
-        mSrcRect = new Rect(0, 0, mSize, mSize);
-        mDstRect = new RectF(0, 0, mSize, mSize);
+    /** Returns the circularly clipped bitmap drawn by this drawable. */
+    public Bitmap getBitmap() {
+        return mBitmap;
     }
 
     @Override
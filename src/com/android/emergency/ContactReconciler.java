@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.provider.ContactsContract.DeletedContacts;
+import android.util.Log;
+
+import com.android.internal.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates emergency contacts incrementally.
+ *
+ * <p>The contact id of each valid phone uri is remembered, together with the time of the last
+ * check. Later checks only revalidate the phone uris whose contact was deleted or updated since
+ * then, according to {@link DeletedContacts#CONTACT_DELETED_TIMESTAMP} and
+ * {@link ContactsContract.Contacts#CONTACT_LAST_UPDATED_TIMESTAMP}. If the address book did not
+ * change, no phone number is queried at all.
+ */
+public class ContactReconciler {
+    private static final String TAG = "ContactReconciler";
+
+    @VisibleForTesting
+    static final String PREFS_NAME = "emergency_contact_reconciler";
+    /**
+     * Time of the last check, taken before querying the contacts provider so that changes made
+     * during the check are seen by the next one. Phone uris are stored under their string value.
+     */
+    @VisibleForTesting
+    static final String KEY_HIGH_WATER_MARK = "high_water_mark";
+
+    private ContactReconciler() {
+    }
+
+    /**
+     * Returns the phone uris of {@code phoneUris} that correspond to an existing phone number, in
+     * the same order. {@code phoneUris} should hold all the stored emergency contacts: the state
+     * of other phone uris is forgotten.
+     *
+     * @see EmergencyContactManager#getValidEmergencyContacts
+     */
+    public static List<Uri> getValidEmergencyContacts(Context context, List<Uri> phoneUris) {
+        if (phoneUris.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final long now = System.currentTimeMillis();
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        long highWaterMark = prefs.getLong(KEY_HIGH_WATER_MARK, 0);
+        // Deleted contacts are only remembered for a while: past that, check everything.
+        boolean checkAll = highWaterMark <= 0
+                || now - highWaterMark >= DeletedContacts.DAYS_KILL_MILLIS;
+        Set<Long> contactIds = new HashSet<>();
+        for (Uri phoneUri : phoneUris) {
+            long contactId = prefs.getLong(phoneUri.toString(), -1);
+            if (contactId < 0) {
+                checkAll = true;
+            }
+            contactIds.add(contactId);
+        }
+        Set<Long> changedContactIds = checkAll
+                ? null
+                : getChangedContactIds(context, contactIds, highWaterMark);
+
+        List<Uri> uncheckedPhoneUris = new ArrayList<>(phoneUris.size());
+        List<Uri> checkedPhoneUris = new ArrayList<>(phoneUris.size());
+        for (Uri phoneUri : phoneUris) {
+            if (changedContactIds == null
+                    || changedContactIds.contains(prefs.getLong(phoneUri.toString(), -1))) {
+                checkedPhoneUris.add(phoneUri);
+            } else {
+                uncheckedPhoneUris.add(phoneUri);
+            }
+        }
+        if (checkedPhoneUris.isEmpty()) {
+            // Nothing changed: the stored contacts are still valid.
+            SharedPreferences.Editor editor = prefs.edit();
+            editor.putLong(KEY_HIGH_WATER_MARK, now);
+            editor.apply();
+            return new ArrayList<>(phoneUris);
+        }
+
+        Map<Uri, Long> validContactIds =
+                EmergencyContactManager.getValidEmergencyContactIds(context, checkedPhoneUris);
+        SharedPreferences.Editor editor = prefs.edit();
+        Map<String, ?> storedValues = prefs.getAll();
+        if (storedValues != null) {
+            for (String key : storedValues.keySet()) {
+                if (!KEY_HIGH_WATER_MARK.equals(key)
+                        && !uncheckedPhoneUris.contains(Uri.parse(key))) {
+                    editor.remove(key);
+                }
+            }
+        }
+        for (Map.Entry<Uri, Long> entry : validContactIds.entrySet()) {
+            editor.putLong(entry.getKey().toString(), entry.getValue());
+        }
+        editor.putLong(KEY_HIGH_WATER_MARK, now);
+        editor.apply();
+
+        List<Uri> validPhoneUris = new ArrayList<>(phoneUris.size());
+        for (Uri phoneUri : phoneUris) {
+            if (uncheckedPhoneUris.contains(phoneUri) || validContactIds.containsKey(phoneUri)) {
+                validPhoneUris.add(phoneUri);
+            }
+        }
+        return validPhoneUris;
+    }
+
+    /** Forgets all the checked contacts, e.g. when the emergency contacts are cleared. */
+    public static void reset(Context context) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+    }
+
+    /**
+     * Returns the ids of {@code contactIds} that were deleted or updated after {@code
+     * highWaterMark}, or null if that could not be determined.
+     */
+    private static Set<Long> getChangedContactIds(Context context, Set<Long> contactIds,
+            long highWaterMark) {
+        Set<Long> changedContactIds = new HashSet<>();
+        try {
+            if (!queryContactIds(context, DeletedContacts.CONTENT_URI,
+                    DeletedContacts.CONTACT_ID, DeletedContacts.CONTACT_DELETED_TIMESTAMP,
+                    contactIds, highWaterMark, changedContactIds)
+                    || !queryContactIds(context, ContactsContract.Contacts.CONTENT_URI,
+                    ContactsContract.Contacts._ID,
+                    ContactsContract.Contacts.CONTACT_LAST_UPDATED_TIMESTAMP,
+                    contactIds, highWaterMark, changedContactIds)) {
+                return null;
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "Unable to read contact changes", e);
+            return null;
+        }
+        return changedContactIds;
+    }
+
+    /**
+     * Adds to {@code changedContactIds} the ids of {@code contactIds} whose {@code
+     * timestampColumn} is after {@code highWaterMark}. Returns false if the query failed.
+     */
+    private static boolean queryContactIds(Context context, Uri uri, String idColumn,
+            String timestampColumn, Set<Long> contactIds, long highWaterMark,
+            Set<Long> changedContactIds) {
+        StringBuilder selection = new StringBuilder()
+                .append(timestampColumn).append(" > ? AND ")
+                .append(idColumn).append(" IN (");
+        String[] selectionArgs = new String[contactIds.size() + 1];
+        selectionArgs[0] = Long.toString(highWaterMark);
+        int i = 1;
+        for (Long contactId : contactIds) {
+            selection.append(i > 1 ? ",?" : "?");
+            selectionArgs[i++] = Long.toString(contactId);
+        }
+        selection.append(')');
+        Cursor cursor = context.getContentResolver().query(uri, new String[]{idColumn},
+                selection.toString(), selectionArgs, null);
+        if (cursor == null) {
+            return false;
+        }
+        try {
+            while (cursor.moveToNext()) {
+                changedContactIds.add(cursor.getLong(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return true;
+    }
+}
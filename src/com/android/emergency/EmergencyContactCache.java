@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.util.LruCache;
+
+import com.android.internal.annotations.VisibleForTesting;
+import com.android.internal.logging.MetricsLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of {@link EmergencyContactManager.Contact}s, keyed by phone uri.
+ *
+ * <p>The cache is cleared whenever the contacts provider notifies a change, so that the contacts
+ * it returns are as fresh as the ones read from the provider. While the user is locked, contacts
+ * are served from the {@link EmergencyContactSnapshot} instead.
+ */
+public class EmergencyContactCache {
+
+    /** Maximum number of contacts kept in memory. */
+    @VisibleForTesting
+    static final int MAX_SIZE = 32;
+
+    private static EmergencyContactCache sInstance;
+
+    private final LruCache<Uri, EmergencyContactManager.Contact> mContacts =
+            new LruCache<>(MAX_SIZE);
+    /** Incremented on each invalidation, to drop results of lookups that raced with it. */
+    private int mGeneration;
+
+    /** Returns the cache shared by the whole process. */
+    public static synchronized EmergencyContactCache getInstance(Context context) {
+        if (sInstance == null) {
+            Context appContext = context.getApplicationContext();
+            sInstance = new EmergencyContactCache(appContext != null ? appContext : context);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    EmergencyContactCache(Context context) {
+        context.getContentResolver().registerContentObserver(ContactsContract.AUTHORITY_URI,
+                true /* notifyForDescendants */,
+                new ContentObserver(null /* handler */) {
+                    @Override
+                    public void onChange(boolean selfChange) {
+                        invalidate();
+                    }
+                });
+    }
+
+    /**
+     * Returns the contact indexed by {@code phoneUri}, from memory if possible.
+     *
+     * @see EmergencyContactManager#getContact
+     */
+    public EmergencyContactManager.Contact getContact(Context context, Uri phoneUri) {
+        EmergencyContactManager.Contact contact = mContacts.get(phoneUri);
+        logLookup(context, contact != null ? 1 : 0, contact != null ? 0 : 1);
+        if (contact != null) {
+            return contact;
+        }
+        contact = load(context, Collections.singletonList(phoneUri)).get(phoneUri);
+        if (contact == null) {
+            // Not found: report it like EmergencyContactManager does, without querying again.
+            return new EmergencyContactManager.Contact(null /* contactLookupUri */, phoneUri,
+                    null /* name */, null /* phoneNumber */, null /* phoneType */,
+                    null /* photo */);
+        }
+        return contact;
+    }
+
+    /**
+     * Returns the contacts indexed by {@code phoneUris}. The ones that are not in memory are
+     * resolved with a single bulk query.
+     *
+     * @see EmergencyContactManager#getContacts
+     */
+    public Map<Uri, EmergencyContactManager.Contact> getContacts(Context context,
+            List<Uri> phoneUris) {
+        Map<Uri, EmergencyContactManager.Contact> contacts = new LinkedHashMap<>();
+        List<Uri> missingPhoneUris = new ArrayList<>();
+        for (Uri phoneUri : phoneUris) {
+            EmergencyContactManager.Contact contact = mContacts.get(phoneUri);
+            if (contact != null) {
+                contacts.put(phoneUri, contact);
+            } else {
+                missingPhoneUris.add(phoneUri);
+            }
+        }
+        logLookup(context, contacts.size(), missingPhoneUris.size());
+        if (missingPhoneUris.isEmpty()) {
+            return contacts;
+        }
+        Map<Uri, EmergencyContactManager.Contact> loadedContacts = load(context, missingPhoneUris);
+        // Rebuild the result to preserve the order of phoneUris.
+        Map<Uri, EmergencyContactManager.Contact> result = new LinkedHashMap<>();
+        for (Uri phoneUri : phoneUris) {
+            EmergencyContactManager.Contact contact = contacts.get(phoneUri);
+            if (contact == null) {
+                contact = loadedContacts.get(phoneUri);
+            }
+            if (contact != null) {
+                result.put(phoneUri, contact);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether {@code phoneUri} corresponds to an existing phone number. Cached contacts
+     * are known to exist and don't need to be checked against the contacts provider.
+     *
+     * @see EmergencyContactManager#isValidEmergencyContact
+     */
+    public boolean isValidEmergencyContact(Context context, Uri phoneUri) {
+        if (phoneUri == null) {
+            return false;
+        }
+        boolean cached = mContacts.get(phoneUri) != null;
+        logLookup(context, cached ? 1 : 0, cached ? 0 : 1);
+        if (cached) {
+            return true;
+        }
+        if (EmergencyContactSnapshot.isUserLocked(context)) {
+            return !loadSnapshot(context, Collections.singletonList(phoneUri)).isEmpty();
+        }
+        return EmergencyContactManager.isValidEmergencyContact(context, phoneUri);
+    }
+
+    /**
+     * Returns the phone uris of {@code phoneUris} that correspond to an existing phone number.
+     * Only the ones that are not cached are checked against the contacts provider.
+     *
+     * @see EmergencyContactManager#getValidEmergencyContacts
+     */
+    public List<Uri> getValidEmergencyContacts(Context context, List<Uri> phoneUris) {
+        List<Uri> uncachedPhoneUris = new ArrayList<>();
+        for (Uri phoneUri : phoneUris) {
+            if (mContacts.get(phoneUri) == null) {
+                uncachedPhoneUris.add(phoneUri);
+            }
+        }
+        logLookup(context, phoneUris.size() - uncachedPhoneUris.size(), uncachedPhoneUris.size());
+        List<Uri> validUncachedPhoneUris;
+        if (uncachedPhoneUris.isEmpty()) {
+            validUncachedPhoneUris = uncachedPhoneUris;
+        } else if (EmergencyContactSnapshot.isUserLocked(context)) {
+            validUncachedPhoneUris =
+                    new ArrayList<>(loadSnapshot(context, uncachedPhoneUris).keySet());
+        } else {
+            validUncachedPhoneUris =
+                    EmergencyContactManager.getValidEmergencyContacts(context, uncachedPhoneUris);
+        }
+        List<Uri> validPhoneUris = new ArrayList<>(phoneUris.size());
+        for (Uri phoneUri : phoneUris) {
+            if (!uncachedPhoneUris.contains(phoneUri)
+                    || validUncachedPhoneUris.contains(phoneUri)) {
+                validPhoneUris.add(phoneUri);
+            }
+        }
+        return validPhoneUris;
+    }
+
+    /** Drops all cached contacts. */
+    public void invalidate() {
+        synchronized (this) {
+            mGeneration++;
+        }
+        mContacts.evictAll();
+    }
+
+    /** Returns the number of lookups that were served from memory. */
+    public int getHitCount() {
+        return mContacts.hitCount();
+    }
+
+    /** Returns the number of lookups that had to go to the contacts provider. */
+    public int getMissCount() {
+        return mContacts.missCount();
+    }
+
+    /** Resolves {@code phoneUris} and caches the result, unless the cache got invalidated. */
+    private Map<Uri, EmergencyContactManager.Contact> load(Context context, List<Uri> phoneUris) {
+        if (EmergencyContactSnapshot.isUserLocked(context)) {
+            // Not cached, so that the contacts provider is read as soon as the user unlocks.
+            return loadSnapshot(context, phoneUris);
+        }
+        int generation;
+        synchronized (this) {
+            generation = mGeneration;
+        }
+        Map<Uri, EmergencyContactManager.Contact> contacts =
+                EmergencyContactManager.getContacts(context, phoneUris);
+        synchronized (this) {
+            if (generation == mGeneration) {
+                for (Map.Entry<Uri, EmergencyContactManager.Contact> entry : contacts.entrySet()) {
+                    mContacts.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * Returns the contacts of {@code phoneUris} found in the snapshot written while the user was
+     * unlocked, in the order of {@code phoneUris}.
+     */
+    private static Map<Uri, EmergencyContactManager.Contact> loadSnapshot(Context context,
+            List<Uri> phoneUris) {
+        Map<Uri, EmergencyContactManager.Contact> snapshot =
+                EmergencyContactSnapshot.read(context);
+        Map<Uri, EmergencyContactManager.Contact> contacts = new LinkedHashMap<>();
+        for (Uri phoneUri : phoneUris) {
+            EmergencyContactManager.Contact contact = snapshot.get(phoneUri);
+            if (contact != null) {
+                contacts.put(phoneUri, contact);
+            }
+        }
+        return contacts;
+    }
+
+    private static void logLookup(Context context, int hits, int misses) {
+        if (hits > 0) {
+            MetricsLogger.count(context, "emergency_contact_cache_hit", hits);
+        }
+        if (misses > 0) {
+            MetricsLogger.count(context, "emergency_contact_cache_miss", misses);
+        }
+    }
+}
@@ -19,14 +19,25 @@ import android.content.ContentUris;
 import android.content.Context;
 import android.database.Cursor;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
 import com.android.internal.logging.MetricsLogger;
 import com.android.internal.logging.nano.MetricsProto.MetricsEvent;
 import android.net.Uri;
 import android.provider.ContactsContract;
+import android.provider.ContactsContract.CommonDataKinds.Phone;
 import android.util.Log;
 
-import java.io.ByteArrayInputStream;
+import com.android.internal.annotations.VisibleForTesting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provides methods to read name, phone number, photo, etc. from contacts.
@@ -34,6 +45,32 @@ import java.io.ByteArrayInputStream;
 public class EmergencyContactManager {
     private static final String TAG = "EmergencyContactManager";
 
+    /** Projection used to resolve emergency contacts in bulk. */
+    private static final String[] PHONE_PROJECTION = new String[]{
+            Phone._ID,
+            Phone.CONTACT_ID,
+            Phone.LOOKUP_KEY,
+            Phone.DISPLAY_NAME,
+            Phone.NUMBER,
+            Phone.TYPE,
+            Phone.LABEL,
+            Phone.PHOTO_ID,
+            Phone.CONTACT_LAST_UPDATED_TIMESTAMP};
+    private static final int COLUMN_PHONE_ID = 0;
+    private static final int COLUMN_CONTACT_ID = 1;
+    private static final int COLUMN_LOOKUP_KEY = 2;
+    private static final int COLUMN_DISPLAY_NAME = 3;
+    private static final int COLUMN_NUMBER = 4;
+    private static final int COLUMN_TYPE = 5;
+    private static final int COLUMN_LABEL = 6;
+    private static final int COLUMN_PHOTO_ID = 7;
+    private static final int COLUMN_LAST_UPDATED_TIMESTAMP = 8;
+
+    /** Projection used when only the existence of the phone numbers is relevant. */
+    private static final String[] PHONE_ID_PROJECTION = new String[]{
+            Phone._ID,
+            Phone.CONTACT_ID};
+
     /**
      * Returns a {@link Contact} that contains all the relevant information of the contact indexed
      * by {@code @phoneUri}.
@@ -43,6 +80,8 @@ public class EmergencyContactManager {
         String phoneType = null;
         String name = null;
         Bitmap photo = null;
+        long photoId = 0;
+        long lastUpdatedTimestamp = 0;
         final Uri contactLookupUri =
                 ContactsContract.Contacts.getLookupUri(context.getContentResolver(),
                         phoneUri);
@@ -52,7 +91,9 @@ public class EmergencyContactManager {
                         ContactsContract.CommonDataKinds.Phone.NUMBER,
                         ContactsContract.CommonDataKinds.Phone.TYPE,
                         ContactsContract.CommonDataKinds.Phone.LABEL,
-                        ContactsContract.CommonDataKinds.Photo.PHOTO_ID},
+                        ContactsContract.CommonDataKinds.Photo.PHOTO_ID,
+                        ContactsContract.CommonDataKinds.Phone.CONTACT_ID,
+                        ContactsContract.CommonDataKinds.Phone.CONTACT_LAST_UPDATED_TIMESTAMP},
                 null, null, null);
         try {
             if (cursor.moveToNext()) {
@@ -62,26 +103,10 @@ public class EmergencyContactManager {
                         context.getResources(),
                         cursor.getInt(2),
                         cursor.getString(3)).toString();
-                Long photoId = cursor.getLong(4);
-                if (photoId != null && photoId > 0) {
-                    Uri photoUri = ContentUris.withAppendedId(ContactsContract.Data.CONTENT_URI,
-                            photoId);
-                    Cursor cursor2 = context.getContentResolver().query(
-                            photoUri,
-                            new String[]{ContactsContract.Contacts.Photo.PHOTO},
-                            null, null, null);
-                    try {
-                        if (cursor2.moveToNext()) {
-                            byte[] data = cursor2.getBlob(0);
-                            if (data != null) {
-                                photo = BitmapFactory.decodeStream(new ByteArrayInputStream(data));
-                            }
-                        }
-                    } finally {
-                        if (cursor2 != null) {
-                            cursor2.close();
-                        }
-                    }
+                photoId = cursor.getLong(4);
+                lastUpdatedTimestamp = cursor.getLong(6);
+                if (photoId > 0) {
+                    photo = loadPhoto(context, cursor.getLong(5), photoId);
                 }
             }
         } finally {
@@ -89,7 +114,58 @@ public class EmergencyContactManager {
                 cursor.close();
             }
         }
-        return new Contact(contactLookupUri, phoneUri, name, phoneNumber, phoneType, photo);
+        return new Contact(contactLookupUri, phoneUri, name, phoneNumber, phoneType, photo,
+                photoId, lastUpdatedTimestamp);
+    }
+
+    /**
+     * Returns the {@link Contact}s indexed by {@code phoneUris}, keyed by phone uri and in the
+     * order of {@code phoneUris}. Phone uris that do not correspond to an existing phone number
+     * are omitted from the result.
+     *
+     * <p>Unlike {@link #getContact}, all contacts are resolved with a single query on
+     * {@link Phone#CONTENT_URI}. Only the photos, if any, are then streamed one by one.
+     */
+    public static Map<Uri, Contact> getContacts(Context context, List<Uri> phoneUris) {
+        try {
+            return queryContacts(context, phoneUris);
+        } catch (SecurityException e) {
+            Log.w(TAG, "Unable to read contact information", e);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Returns the phone uris of {@code phoneUris} that correspond to an existing phone number, in
+     * the same order. All the phone uris are validated with a single query.
+     */
+    public static List<Uri> getValidEmergencyContacts(Context context, List<Uri> phoneUris) {
+        return new ArrayList<>(getValidEmergencyContactIds(context, phoneUris).keySet());
+    }
+
+    /**
+     * Like {@link #getValidEmergencyContacts}, but also returns the id of the contact each valid
+     * phone uri belongs to.
+     */
+    public static Map<Uri, Long> getValidEmergencyContactIds(Context context,
+            List<Uri> phoneUris) {
+        Map<Long, PhoneRow> rows;
+        try {
+            rows = queryPhoneRows(context, phoneUris, false /* loadDetails */);
+        } catch (SecurityException e) {
+            Log.w(TAG, "Unable to read contact information", e);
+            MetricsLogger.action(context, MetricsEvent.ACTION_PHONE_EXISTS, 2);
+            return new LinkedHashMap<>();
+        }
+        Map<Uri, Long> contactIds = new LinkedHashMap<>();
+        for (Uri phoneUri : phoneUris) {
+            PhoneRow row = rows.get(getPhoneId(phoneUri));
+            MetricsLogger.action(context, MetricsEvent.ACTION_PHONE_EXISTS, row != null ? 1 : 0);
+            if (row != null) {
+                contactIds.put(phoneUri, row.contactId);
+            }
+        }
+        return contactIds;
     }
 
     /** Returns whether the phone uri is not null and corresponds to an existing phone number. */
@@ -118,6 +194,199 @@ public class EmergencyContactManager {
         return false;
     }
 
+    /** Resolves all {@code phoneUris} with one query. */
+    private static Map<Uri, Contact> queryContacts(Context context, List<Uri> phoneUris) {
+        Map<Long, PhoneRow> rows = queryPhoneRows(context, phoneUris, true /* loadDetails */);
+        Map<Uri, Contact> contacts = new LinkedHashMap<>();
+        Map<Long, Bitmap> photos = new HashMap<>();
+        for (PhoneRow row : rows.values()) {
+            if (row.photoId > 0 && !photos.containsKey(row.photoId)) {
+                photos.put(row.photoId, loadPhoto(context, row.contactId, row.photoId));
+            }
+        }
+        for (Uri phoneUri : phoneUris) {
+            PhoneRow row = rows.get(getPhoneId(phoneUri));
+            if (row == null) {
+                continue;
+            }
+            Uri contactLookupUri = row.lookupKey == null ? null
+                    : ContactsContract.Contacts.getLookupUri(row.contactId, row.lookupKey);
+            contacts.put(phoneUri, new Contact(contactLookupUri, phoneUri, row.name,
+                    row.phoneNumber, row.phoneType, photos.get(row.photoId), row.photoId,
+                    row.lastUpdatedTimestamp));
+        }
+        return contacts;
+    }
+
+    /**
+     * Reads the phone rows of {@code phoneUris} with one query, keyed by phone id. If {@code
+     * loadDetails} is false, the rows only carry their phone and contact ids, which is enough to
+     * check that they exist.
+     */
+    private static Map<Long, PhoneRow> queryPhoneRows(Context context, List<Uri> phoneUris,
+                                                      boolean loadDetails) {
+        Set<Long> phoneIds = new HashSet<>();
+        for (Uri phoneUri : phoneUris) {
+            long phoneId = getPhoneId(phoneUri);
+            if (phoneId >= 0) {
+                phoneIds.add(phoneId);
+            }
+        }
+        Map<Long, PhoneRow> rows = new HashMap<>();
+        if (phoneIds.isEmpty()) {
+            return rows;
+        }
+
+        Cursor cursor = context.getContentResolver().query(
+                Phone.CONTENT_URI,
+                loadDetails ? PHONE_PROJECTION : PHONE_ID_PROJECTION,
+                Phone._ID + " IN (" + buildPlaceholders(phoneIds.size()) + ")",
+                toSelectionArgs(phoneIds),
+                null);
+        try {
+            while (cursor != null && cursor.moveToNext()) {
+                PhoneRow row = new PhoneRow();
+                row.phoneId = cursor.getLong(COLUMN_PHONE_ID);
+                row.contactId = cursor.getLong(COLUMN_CONTACT_ID);
+                if (loadDetails) {
+                    row.lookupKey = cursor.getString(COLUMN_LOOKUP_KEY);
+                    row.name = cursor.getString(COLUMN_DISPLAY_NAME);
+                    row.phoneNumber = cursor.getString(COLUMN_NUMBER);
+                    row.phoneType = Phone.getTypeLabel(
+                            context.getResources(),
+                            cursor.getInt(COLUMN_TYPE),
+                            cursor.getString(COLUMN_LABEL)).toString();
+                    row.photoId = cursor.getLong(COLUMN_PHOTO_ID);
+                    row.lastUpdatedTimestamp = cursor.getLong(COLUMN_LAST_UPDATED_TIMESTAMP);
+                }
+                rows.put(row.phoneId, row);
+            }
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Loads the photo of the contact {@code contactId}, downsampled to the size of the avatars it
+     * is displayed in. The photo is streamed from the contacts provider; if that is not possible,
+     * the blob of the {@code photoId} data row is read instead.
+     */
+    private static Bitmap loadPhoto(Context context, long contactId, long photoId) {
+        int targetSize = context.getResources().getDimensionPixelSize(R.dimen.circle_avatar_size);
+        Uri photoUri = Uri.withAppendedPath(
+                ContentUris.withAppendedId(ContactsContract.Contacts.CONTENT_URI, contactId),
+                ContactsContract.Contacts.Photo.CONTENT_DIRECTORY);
+        try {
+            return decodePhoto(
+                    ImageDecoder.createSource(context.getContentResolver(), photoUri), targetSize);
+        } catch (IOException | SecurityException e) {
+            Log.w(TAG, "Unable to stream contact photo, reading it from its data row", e);
+        }
+
+        byte[] data = null;
+        Cursor cursor = context.getContentResolver().query(
+                ContentUris.withAppendedId(ContactsContract.Data.CONTENT_URI, photoId),
+                new String[]{ContactsContract.Contacts.Photo.PHOTO},
+                null, null, null);
+        try {
+            if (cursor != null && cursor.moveToNext()) {
+                data = cursor.getBlob(0);
+            }
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        if (data == null) {
+            return null;
+        }
+        try {
+            return decodePhoto(ImageDecoder.createSource(ByteBuffer.wrap(data)), targetSize);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to decode contact photo", e);
+            return null;
+        }
+    }
+
+    /**
+     * Decodes {@code source} into a software bitmap whose shorter side is downsampled by a power
+     * of two, as long as it stays at least {@code targetSize} pixels.
+     */
+    @VisibleForTesting
+    static Bitmap decodePhoto(ImageDecoder.Source source, int targetSize) throws IOException {
+        return ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+            // CircleFramedDrawable draws the photo on a software canvas.
+            decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE);
+            decoder.setTargetSampleSize(computeSampleSize(
+                    info.getSize().getWidth(), info.getSize().getHeight(), targetSize));
+        });
+    }
+
+    /**
+     * Returns the largest power of two by which a {@code width}x{@code height} image can be
+     * downsampled while keeping its shorter side at least {@code targetSize} pixels.
+     */
+    @VisibleForTesting
+    static int computeSampleSize(int width, int height, int targetSize) {
+        int shortSide = Math.min(width, height);
+        int sampleSize = 1;
+        while (targetSize > 0 && shortSide / (sampleSize * 2) >= targetSize) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Returns the id of the phone data row referenced by {@code phoneUri}, or -1 if it does not
+     * point to a row of the contacts provider.
+     */
+    private static long getPhoneId(Uri phoneUri) {
+        if (phoneUri == null || !ContactsContract.AUTHORITY.equals(phoneUri.getAuthority())) {
+            return -1;
+        }
+        try {
+            return ContentUris.parseId(phoneUri);
+        } catch (NumberFormatException | UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    private static String buildPlaceholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    private static String[] toSelectionArgs(Set<Long> ids) {
+        String[] selectionArgs = new String[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            selectionArgs[i++] = Long.toString(id);
+        }
+        return selectionArgs;
+    }
+
+    /** A row of the bulk phone query. */
+    private static class PhoneRow {
+        long phoneId;
+        long contactId;
+        String lookupKey;
+        String name;
+        String phoneNumber;
+        String phoneType;
+        long photoId;
+        long lastUpdatedTimestamp;
+    }
+
     /** Wrapper for a contact with a phone number. */
     public static class Contact {
         /** The lookup uri is necessary to display the contact. */
@@ -135,6 +404,10 @@ public class EmergencyContactManager {
         private final String mPhoneType;
         /** The contact's photo. */
         private final Bitmap mPhoto;
+        /** The id of the data row holding the contact's photo, or 0 if it has none. */
+        private final long mPhotoId;
+        /** When the contact was last updated, in milliseconds since epoch, or 0 if unknown. */
+        private final long mLastUpdatedTimestamp;
 
         /** Constructs a new contact. */
         public Contact(Uri contactLookupUri,
@@ -143,12 +416,41 @@ public class EmergencyContactManager {
                        String phoneNumber,
                        String phoneType,
                        Bitmap photo) {
+            this(contactLookupUri, phoneUri, name, phoneNumber, phoneType, photo, 0);
+        }
+
+        /** Constructs a new contact whose photo is stored in the data row {@code photoId}. */
+        public Contact(Uri contactLookupUri,
+                       Uri phoneUri,
+                       String name,
+                       String phoneNumber,
+                       String phoneType,
+                       Bitmap photo,
+                       long photoId) {
+            this(contactLookupUri, phoneUri, name, phoneNumber, phoneType, photo, photoId,
+                    0 /* lastUpdatedTimestamp */);
+        }
+
+        /**
+         * Constructs a new contact whose photo is stored in the data row {@code photoId}, and
+         * which was last updated at {@code lastUpdatedTimestamp}.
+         */
+        public Contact(Uri contactLookupUri,
+                       Uri phoneUri,
+                       String name,
+                       String phoneNumber,
+                       String phoneType,
+                       Bitmap photo,
+                       long photoId,
+                       long lastUpdatedTimestamp) {
             mContactLookupUri = contactLookupUri;
             mPhoneUri = phoneUri;
             mName = name;
             mPhoneNumber = phoneNumber;
             mPhoneType = phoneType;
             mPhoto = photo;
+            mPhotoId = photoId;
+            mLastUpdatedTimestamp = lastUpdatedTimestamp;
         }
 
         /** Returns the contact's CONTENT_LOOKUP_URI. Use this to display the contact. */
@@ -184,5 +486,18 @@ public class EmergencyContactManager {
         public Bitmap getPhoto() {
             return mPhoto;
         }
+
+        /** Returns the id of the data row holding the photo, or 0 if the contact has none. */
+        public long getPhotoId() {
+            return mPhotoId;
+        }
+
+        /**
+         * Returns when the contact was last updated, in milliseconds since epoch, or 0 if it is
+         * unknown.
+         */
+        public long getLastUpdatedTimestamp() {
+            return mLastUpdatedTimestamp;
+        }
     }
 }
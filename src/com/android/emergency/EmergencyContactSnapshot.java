@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.os.UserManager;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.android.internal.annotations.VisibleForTesting;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copy of the resolved emergency contacts kept in device protected storage.
+ *
+ * <p>Before the user unlocks the device for the first time, the contacts provider is unavailable.
+ * The snapshot is written whenever the emergency contacts are resolved while the user is unlocked,
+ * and read instead of the contacts provider while the user is locked.
+ *
+ * <p>Contact photos are stored as the avatars displayed for them, already framed at display size,
+ * so that they don't need to be composited again while the user is locked.
+ */
+public class EmergencyContactSnapshot {
+    private static final String TAG = "EmergencyContactSnapshot";
+
+    @VisibleForTesting
+    static final String FILE_NAME = "emergency_contacts_snapshot";
+    /** Bump when changing the file format: snapshots of other versions are ignored. */
+    @VisibleForTesting
+    static final int VERSION = 2;
+
+    /**
+     * Identifies the contacts of the last snapshot written by this process, to skip identical
+     * writes without serializing them.
+     */
+    private static List<Object> sLastWrittenContacts;
+
+    private EmergencyContactSnapshot() {
+    }
+
+    /** Returns whether the user is known to be locked, i.e. the contacts are unavailable. */
+    public static boolean isUserLocked(Context context) {
+        UserManager userManager = context.getSystemService(UserManager.class);
+        return userManager != null && !userManager.isUserUnlocked();
+    }
+
+    /** Writes a snapshot of {@code contacts} in the background. */
+    public static void writeAsync(Context context, List<EmergencyContactManager.Contact> contacts) {
+        final Context appContext = context.getApplicationContext();
+        final List<EmergencyContactManager.Contact> contactsCopy = new ArrayList<>(contacts);
+        // Serial executor: the last snapshot scheduled is the last one written.
+        AsyncTask.SERIAL_EXECUTOR.execute(
+                () -> write(appContext != null ? appContext : context, contactsCopy));
+    }
+
+    /** Writes a snapshot of {@code contacts}, replacing the previous one. */
+    @VisibleForTesting
+    static synchronized void write(Context context,
+            List<EmergencyContactManager.Contact> contacts) {
+        List<Object> identity = getIdentity(contacts);
+        if (identity.equals(sLastWrittenContacts)) {
+            return;
+        }
+        byte[] snapshot;
+        try {
+            snapshot = serialize(context, contacts);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to serialize emergency contacts", e);
+            return;
+        }
+        AtomicFile file = getFile(context);
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            out.write(snapshot);
+            file.finishWrite(out);
+            sLastWrittenContacts = identity;
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write emergency contacts snapshot", e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+        }
+    }
+
+    /**
+     * Returns the contacts of the last snapshot, indexed by phone uri in their stored order, or an
+     * empty map if there is no usable snapshot. The photos of the contacts are their framed
+     * avatars, which are also put in the {@link AvatarCache}.
+     */
+    public static synchronized Map<Uri, EmergencyContactManager.Contact> read(Context context) {
+        try {
+            return deserialize(context, getFile(context).readFully());
+        } catch (FileNotFoundException e) {
+            return Collections.emptyMap();
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read emergency contacts snapshot", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Deletes the snapshot in the background, after any pending write. Used when the user clears
+     * their emergency information.
+     */
+    public static void delete(Context context) {
+        final Context appContext = context.getApplicationContext();
+        AsyncTask.SERIAL_EXECUTOR.execute(
+                () -> deleteNow(appContext != null ? appContext : context));
+    }
+
+    @VisibleForTesting
+    static synchronized void deleteNow(Context context) {
+        getFile(context).delete();
+        sLastWrittenContacts = null;
+    }
+
+    @VisibleForTesting
+    static byte[] serialize(Context context, List<EmergencyContactManager.Contact> contacts)
+            throws IOException {
+        int avatarSize = (int) context.getResources().getDimension(R.dimen.circle_avatar_size);
+        AvatarCache avatarCache = AvatarCache.getInstance(context);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VERSION);
+        out.writeInt(contacts.size());
+        for (EmergencyContactManager.Contact contact : contacts) {
+            writeString(out, toString(contact.getPhoneUri()));
+            writeString(out, toString(contact.getContactLookupUri()));
+            writeString(out, contact.getName());
+            writeString(out, contact.getPhoneNumber());
+            writeString(out, contact.getPhoneType());
+            out.writeLong(contact.getPhotoId());
+            out.writeLong(contact.getLastUpdatedTimestamp());
+            Bitmap photo = contact.getPhoto();
+            if (photo == null) {
+                out.writeInt(0);
+            } else {
+                // The avatar was most likely framed already to display the contact.
+                Bitmap avatar = avatarCache.getContactAvatar(contact.getPhotoId(),
+                        contact.getLastUpdatedTimestamp(), photo, avatarSize).getBitmap();
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                avatar.compress(Bitmap.CompressFormat.PNG, 100 /* quality */, png);
+                out.writeInt(png.size());
+                png.writeTo(out);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @VisibleForTesting
+    static Map<Uri, EmergencyContactManager.Contact> deserialize(Context context,
+            byte[] snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if (in.readInt() != VERSION) {
+            return Collections.emptyMap();
+        }
+        int count = in.readInt();
+        Map<Uri, EmergencyContactManager.Contact> contacts = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            Uri phoneUri = toUri(readString(in));
+            Uri contactLookupUri = toUri(readString(in));
+            String name = readString(in);
+            String phoneNumber = readString(in);
+            String phoneType = readString(in);
+            long photoId = in.readLong();
+            long lastUpdatedTimestamp = in.readLong();
+            int avatarLength = in.readInt();
+            // Checked before allocating, so that a corrupt length can't run out of memory.
+            if (avatarLength < 0 || avatarLength > in.available()) {
+                throw new IOException("Invalid avatar length " + avatarLength);
+            }
+            Bitmap avatar = null;
+            if (avatarLength > 0) {
+                byte[] png = new byte[avatarLength];
+                in.readFully(png);
+                avatar = BitmapFactory.decodeByteArray(png, 0, avatarLength);
+            }
+            if (avatar != null) {
+                AvatarCache.getInstance(context).putContactAvatar(photoId, lastUpdatedTimestamp,
+                        avatar);
+            }
+            if (phoneUri != null) {
+                contacts.put(phoneUri, new EmergencyContactManager.Contact(contactLookupUri,
+                        phoneUri, name, phoneNumber, phoneType, avatar, photoId,
+                        lastUpdatedTimestamp));
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * Returns what the snapshot of {@code contacts} depends on. Contacts are updated whenever
+     * their photo changes, so their photos are identified by their data row and update time.
+     */
+    private static List<Object> getIdentity(List<EmergencyContactManager.Contact> contacts) {
+        List<Object> identity = new ArrayList<>(contacts.size() * 7);
+        for (EmergencyContactManager.Contact contact : contacts) {
+            Collections.addAll(identity, contact.getPhoneUri(), contact.getContactLookupUri(),
+                    contact.getName(), contact.getPhoneNumber(), contact.getPhoneType(),
+                    contact.getPhotoId(), contact.getLastUpdatedTimestamp());
+        }
+        return identity;
+    }
+
+    private static AtomicFile getFile(Context context) {
+        Context deviceProtectedContext = context.isDeviceProtectedStorage()
+                ? context
+                : context.createDeviceProtectedStorageContext();
+        return new AtomicFile(new File(deviceProtectedContext.getFilesDir(), FILE_NAME));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static String toString(Uri uri) {
+        return uri == null ? null : uri.toString();
+    }
+
+    private static Uri toUri(String uri) {
+        return uri == null ? null : Uri.parse(uri);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.provider.ContactsContract;
+import android.text.TextUtils;
+import android.util.Log;
+import androidx.preference.PreferenceManager;
+
+import com.android.emergency.preferences.EmergencyContactsPreference;
+import com.android.emergency.util.PreferenceUtils;
+import com.android.internal.annotations.VisibleForTesting;
+import com.android.internal.logging.MetricsLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Removes the emergency contacts that were deleted from the contacts app from
+ * {@link PreferenceKeys#KEY_EMERGENCY_CONTACTS}, in the background.
+ *
+ * <p>The job runs whenever the contacts provider changes, so that the screens can trust the
+ * persisted list of emergency contacts instead of validating it. The contacts are validated in
+ * the background, then removed on the main thread, where all the writes of the emergency contacts
+ * happen: see {@link EmergencyContactsPreference}.
+ */
+public class EmergencyContactsPruneJobService extends JobService {
+    private static final String TAG = "EmergencyContactsPrune";
+
+    /** Job run when the contacts change. */
+    @VisibleForTesting
+    static final int JOB_ID_CONTACTS_CHANGED = 1;
+    /** Job run as soon as possible, when a screen found contacts it could not resolve. */
+    @VisibleForTesting
+    static final int JOB_ID_PRUNE_NOW = 2;
+
+    /** Delay before running the job, so that a burst of contact changes runs it once. */
+    private static final long TRIGGER_CONTENT_UPDATE_DELAY_MS = 10 * 1000;
+    private static final long TRIGGER_CONTENT_MAX_DELAY_MS = 60 * 1000;
+
+    private AsyncTask<Void, Void, List<Uri>> mPruneTask;
+
+    /** Schedules the job to run on the next change of the contacts provider. */
+    public static void schedule(Context context) {
+        JobInfo jobInfo = new JobInfo.Builder(JOB_ID_CONTACTS_CHANGED,
+                new ComponentName(context, EmergencyContactsPruneJobService.class))
+                .addTriggerContentUri(new JobInfo.TriggerContentUri(
+                        ContactsContract.AUTHORITY_URI,
+                        JobInfo.TriggerContentUri.FLAG_NOTIFY_FOR_DESCENDANTS))
+                .setTriggerContentUpdateDelay(TRIGGER_CONTENT_UPDATE_DELAY_MS)
+                .setTriggerContentMaxDelay(TRIGGER_CONTENT_MAX_DELAY_MS)
+                .build();
+        schedule(context, jobInfo);
+    }
+
+    /** Stops watching the contacts provider, e.g. once no emergency contacts are stored. */
+    public static void cancel(Context context) {
+        JobScheduler jobScheduler = context.getSystemService(JobScheduler.class);
+        if (jobScheduler != null) {
+            jobScheduler.cancel(JOB_ID_CONTACTS_CHANGED);
+        }
+    }
+
+    /** Schedules the job to run as soon as possible. */
+    public static void scheduleNow(Context context) {
+        JobInfo jobInfo = new JobInfo.Builder(JOB_ID_PRUNE_NOW,
+                new ComponentName(context, EmergencyContactsPruneJobService.class))
+                .setOverrideDeadline(0)
+                .build();
+        schedule(context, jobInfo);
+    }
+
+    private static void schedule(Context context, JobInfo jobInfo) {
+        JobScheduler jobScheduler = context.getSystemService(JobScheduler.class);
+        if (jobScheduler == null) {
+            return;
+        }
+        if (jobScheduler.schedule(jobInfo) != JobScheduler.RESULT_SUCCESS) {
+            Log.w(TAG, "Unable to schedule job " + jobInfo.getId());
+        }
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        final Context context = this;
+        mPruneTask = new AsyncTask<Void, Void, List<Uri>>() {
+            @Override
+            protected List<Uri> doInBackground(Void... unused) {
+                // Before the user unlocks, the contacts provider and the stored contacts are
+                // unavailable: wait for the next change instead.
+                if (EmergencyContactSnapshot.isUserLocked(context)) {
+                    return null;
+                }
+                return findDeletedEmergencyContacts(context);
+            }
+
+            @Override
+            protected void onPostExecute(List<Uri> deletedContacts) {
+                mPruneTask = null;
+                if (deletedContacts != null) {
+                    removeDeletedEmergencyContacts(context, deletedContacts);
+                }
+                jobFinished(params, false /* wantsReschedule */);
+                // Content triggered jobs only run once: watch for the next change. This is done
+                // once the job finished, as scheduling a running job stops it.
+                if (deletedContacts == null) {
+                    schedule(context);
+                } else {
+                    scheduleIfContactsStored(context);
+                }
+            }
+        };
+        mPruneTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        if (mPruneTask != null) {
+            mPruneTask.cancel(false /* mayInterruptIfRunning */);
+            mPruneTask = null;
+        }
+        // Run again later, unless the job was stopped because it was scheduled again.
+        return true;
+    }
+
+    /**
+     * Returns the persisted emergency contacts that do not exist anymore. This queries the
+     * contacts provider, so it must not be called on the main thread.
+     */
+    @VisibleForTesting
+    static List<Uri> findDeletedEmergencyContacts(Context context) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        String emergencyContactString = EmergencyContactsPreference.getStoredEmergencyContacts(
+                context, prefs, PreferenceKeys.KEY_EMERGENCY_CONTACTS, "");
+        if (TextUtils.isEmpty(emergencyContactString)) {
+            return Collections.emptyList();
+        }
+        List<Uri> deletedContacts =
+                new ArrayList<>(EmergencyContactsPreference.deserialize(emergencyContactString));
+        deletedContacts.removeAll(
+                EmergencyContactsPreference.getValidEmergencyContacts(context, deletedContacts));
+        return deletedContacts;
+    }
+
+    /**
+     * Schedules the job to run on the next change of the contacts provider if emergency contacts
+     * are stored. Otherwise, there is nothing to prune until a contact is added, which schedules
+     * the job again.
+     */
+    @VisibleForTesting
+    static void scheduleIfContactsStored(Context context) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        String emergencyContactString = EmergencyContactsPreference.getStoredEmergencyContacts(
+                context, prefs, PreferenceKeys.KEY_EMERGENCY_CONTACTS, "");
+        if (!TextUtils.isEmpty(emergencyContactString)
+                && !EmergencyContactsPreference.deserialize(emergencyContactString).isEmpty()) {
+            schedule(context);
+        }
+    }
+
+    /**
+     * Removes {@code deletedContacts} from the persisted emergency contacts, with a single write.
+     * Only these contacts are removed, from the persisted contacts as they are when writing, so
+     * that contacts added meanwhile are kept.
+     *
+     * <p>Called on the main thread.
+     */
+    @VisibleForTesting
+    static void removeDeletedEmergencyContacts(Context context, List<Uri> deletedContacts) {
+        if (deletedContacts.isEmpty()) {
+            return;
+        }
+        EmergencyContactsPreference.removeStoredEmergencyContacts(
+                context, PreferenceKeys.KEY_EMERGENCY_CONTACTS, deletedContacts);
+        PreferenceUtils.updateSettingsSuggestionState(context);
+        MetricsLogger.count(context, "emergency_contacts_pruned", deletedContacts.size());
+    }
+}
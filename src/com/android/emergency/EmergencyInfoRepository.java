@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.text.TextUtils;
+import androidx.preference.PreferenceManager;
+
+import com.android.emergency.preferences.EmergencyContactsPreference;
+import com.android.emergency.util.PreferenceUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds an immutable {@link Snapshot} of the emergency info stored in the default shared
+ * preferences, i.e. the medical fields of {@link PreferenceKeys#KEYS_VIEW_EMERGENCY_INFO} and
+ * the emergency contacts.
+ *
+ * <p>The snapshot is replaced whenever one of these preferences changes, so that the screens
+ * and helpers can query it instead of reading and decoding every preference again.
+ */
+public class EmergencyInfoRepository
+        implements SharedPreferences.OnSharedPreferenceChangeListener {
+    private static EmergencyInfoRepository sInstance;
+
+    private final Context mContext;
+    private final SharedPreferences mSharedPreferences;
+    private volatile Snapshot mSnapshot;
+
+    private EmergencyInfoRepository(Context context, SharedPreferences sharedPreferences) {
+        mContext = context;
+        mSharedPreferences = sharedPreferences;
+        mSnapshot = Snapshot.load(context, sharedPreferences);
+    }
+
+    /** Returns the repository of the default shared preferences of {@code context}. */
+    public static synchronized EmergencyInfoRepository getInstance(Context context) {
+        SharedPreferences sharedPreferences =
+                PreferenceManager.getDefaultSharedPreferences(context);
+        // The default shared preferences are the same instance for the whole process, unless
+        // they were replaced, e.g. by a test.
+        if (sInstance == null || sInstance.mSharedPreferences != sharedPreferences) {
+            if (sInstance != null) {
+                sInstance.mSharedPreferences.unregisterOnSharedPreferenceChangeListener(
+                        sInstance);
+            }
+            Context applicationContext = context.getApplicationContext();
+            sInstance = new EmergencyInfoRepository(
+                    applicationContext != null ? applicationContext : context,
+                    sharedPreferences);
+            // Shared preferences only keep a weak reference to their listeners: sInstance keeps
+            // this one alive.
+            sharedPreferences.registerOnSharedPreferenceChangeListener(sInstance);
+        }
+        return sInstance;
+    }
+
+    /** Returns the current emergency info. */
+    public Snapshot getSnapshot() {
+        return mSnapshot;
+    }
+
+    /**
+     * Reloads the snapshot from the shared preferences. Changes are usually picked up by the
+     * listener, but the ones committed from a background thread only reach it later, on the main
+     * thread.
+     */
+    public void reload() {
+        mSnapshot = Snapshot.load(mContext, mSharedPreferences);
+    }
+
+    @Override
+    public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+        Snapshot previousSnapshot = mSnapshot;
+        // The key is null when the preferences were cleared.
+        if (key == null) {
+            reload();
+        } else if (PreferenceKeys.KEY_EMERGENCY_CONTACTS.equals(key)) {
+            mSnapshot = mSnapshot.withEmergencyContacts(
+                    loadEmergencyContacts(mContext, sharedPreferences));
+        } else if (mSnapshot.mFields.containsKey(key)) {
+            mSnapshot = mSnapshot.withField(key, sharedPreferences.getString(key, ""));
+        }
+        if (mSnapshot.hasAnyInfo() != previousSnapshot.hasAnyInfo()) {
+            PreferenceUtils.updateSettingsSuggestionState(mContext);
+        }
+    }
+
+    private static List<Uri> loadEmergencyContacts(Context context,
+            SharedPreferences sharedPreferences) {
+        String emergencyContactsString = EmergencyContactsPreference.getStoredEmergencyContacts(
+                context, sharedPreferences, PreferenceKeys.KEY_EMERGENCY_CONTACTS, "");
+        // Deleted contacts are removed from the stored ones by EmergencyContactsPruneJobService.
+        return Collections.unmodifiableList(
+                EmergencyContactsPreference.deserialize(emergencyContactsString));
+    }
+
+    /** Immutable emergency info, as stored at some point in time. */
+    public static final class Snapshot {
+        private final Map<String, String> mFields;
+        private final List<Uri> mEmergencyContacts;
+        private final int mFieldSetCount;
+
+        private Snapshot(Map<String, String> fields, List<Uri> emergencyContacts) {
+            mFields = fields;
+            mEmergencyContacts = emergencyContacts;
+            int fieldSetCount = 0;
+            for (String value : fields.values()) {
+                if (!value.isEmpty()) {
+                    fieldSetCount++;
+                }
+            }
+            mFieldSetCount = fieldSetCount;
+        }
+
+        private static Snapshot load(Context context, SharedPreferences sharedPreferences) {
+            Map<String, String> fields = new HashMap<>();
+            for (String key : PreferenceKeys.KEYS_VIEW_EMERGENCY_INFO) {
+                fields.put(key, nullToEmpty(sharedPreferences.getString(key, "")));
+            }
+            return new Snapshot(Collections.unmodifiableMap(fields),
+                    loadEmergencyContacts(context, sharedPreferences));
+        }
+
+        private Snapshot withField(String key, String value) {
+            Map<String, String> fields = new HashMap<>(mFields);
+            fields.put(key, nullToEmpty(value));
+            return new Snapshot(Collections.unmodifiableMap(fields), mEmergencyContacts);
+        }
+
+        private Snapshot withEmergencyContacts(List<Uri> emergencyContacts) {
+            return new Snapshot(mFields, emergencyContacts);
+        }
+
+        /**
+         * Returns the value of the medical field {@code key}, one of
+         * {@link PreferenceKeys#KEYS_VIEW_EMERGENCY_INFO}, or an empty string if it is not set.
+         */
+        public String getField(String key) {
+            String value = mFields.get(key);
+            return value != null ? value : "";
+        }
+
+        /** Returns whether at least one medical field is set. */
+        public boolean hasAnyFieldSet() {
+            return mFieldSetCount > 0;
+        }
+
+        /** Returns whether at least one medical field or emergency contact is set. */
+        public boolean hasAnyInfo() {
+            return hasAnyFieldSet() || !mEmergencyContacts.isEmpty();
+        }
+
+        /** Returns the stored emergency contacts, in order. */
+        public List<Uri> getEmergencyContacts() {
+            return mEmergencyContacts;
+        }
+
+        /** Returns the number of stored emergency contacts. */
+        public int getEmergencyContactCount() {
+            return mEmergencyContacts.size();
+        }
+
+        private static String nullToEmpty(String value) {
+            return TextUtils.isEmpty(value) ? "" : value;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.UserHandle;
+import android.os.UserManager;
+import android.util.SparseArray;
+
+import com.android.internal.annotations.VisibleForTesting;
+import com.android.internal.util.UserIcons;
+
+/**
+ * Process-wide cache of the name and the framed icons of the current user.
+ *
+ * <p>The cache is cleared whenever {@link Intent#ACTION_USER_INFO_CHANGED} is received, so that
+ * screens can show the user card without calling {@link UserManager} and framing the icon again
+ * each time they are bound.
+ */
+public class UserProfileCache {
+    private static UserProfileCache sInstance;
+
+    /** The user name, or null if it is not cached. */
+    private String mUserName;
+    /** The framed user icons, by size. */
+    private final SparseArray<Bitmap> mUserIcons = new SparseArray<>();
+    /** Incremented on each invalidation, to drop results of lookups that raced with it. */
+    private int mGeneration;
+
+    /** Returns the cache shared by the whole process. */
+    public static synchronized UserProfileCache getInstance(Context context) {
+        if (sInstance == null) {
+            Context appContext = context.getApplicationContext();
+            sInstance = new UserProfileCache(appContext != null ? appContext : context);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    UserProfileCache(Context context) {
+        context.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                AvatarCache.getInstance(context).invalidateUserAvatars(UserHandle.myUserId());
+                invalidate();
+            }
+        }, new IntentFilter(Intent.ACTION_USER_INFO_CHANGED));
+    }
+
+    /** Returns the name of the current user, from memory if possible. */
+    public String getUserName(Context context) {
+        final int generation;
+        synchronized (this) {
+            if (mUserName != null) {
+                return mUserName;
+            }
+            generation = mGeneration;
+        }
+        String userName = context.getSystemService(UserManager.class).getUserName();
+        synchronized (this) {
+            if (generation == mGeneration) {
+                mUserName = userName;
+            }
+        }
+        return userName;
+    }
+
+    /**
+     * Returns the icon of the current user, or the default icon if they have none, framed in a
+     * circle of {@code size} pixels. The framed bitmap is rendered once per size.
+     */
+    public CircleFramedDrawable getUserIcon(Context context, int size) {
+        final int generation;
+        synchronized (this) {
+            Bitmap userIcon = mUserIcons.get(size);
+            if (userIcon != null) {
+                return CircleFramedDrawable.wrap(userIcon);
+            }
+            generation = mGeneration;
+        }
+        final int userId = UserHandle.myUserId();
+        CircleFramedDrawable drawable = AvatarCache.getInstance(context).getUserAvatar(
+                userId, () -> loadUserIcon(context, userId), size);
+        synchronized (this) {
+            if (generation == mGeneration) {
+                mUserIcons.put(size, drawable.getBitmap());
+            }
+        }
+        return drawable;
+    }
+
+    /** Returns the icon of the user {@code userId}, or the default icon if they have none. */
+    private static Bitmap loadUserIcon(Context context, int userId) {
+        Bitmap bitmapUserIcon = context.getSystemService(UserManager.class).getUserIcon(userId);
+        if (bitmapUserIcon == null) {
+            // Get default user icon.
+            Drawable defaultUserIcon = UserIcons.getDefaultUserIcon(
+                    context.getResources(), userId, false /* light icon */);
+            bitmapUserIcon = UserIcons.convertToBitmap(defaultUserIcon);
+        }
+        return bitmapUserIcon;
+    }
+
+    /** Drops the cached name and icons, e.g. after they were changed. */
+    public synchronized void invalidate() {
+        mUserName = null;
+        mUserIcons.clear();
+        mGeneration++;
+    }
+}
@@ -34,6 +34,9 @@ import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 
+import com.android.emergency.ContactReconciler;
+import com.android.emergency.EmergencyContactSnapshot;
+import com.android.emergency.EmergencyContactsPruneJobService;
 import com.android.emergency.PreferenceKeys;
 import com.android.emergency.R;
 import com.android.emergency.overlay.FeatureFactory;
@@ -122,11 +125,19 @@ public class EditInfoActivity extends Activity {
     }
 
     private void onClearAllPreferences() {
-        SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
+        // Remove all the emergency info with a single edit, written to disk in the background.
+        // Like the preferences themselves, it is applied on the main thread: see
+        // EmergencyContactsPreference for the emergency contacts.
+        SharedPreferences.Editor editor =
+                PreferenceManager.getDefaultSharedPreferences(this).edit();
         for (String key : PreferenceKeys.KEYS_EDIT_EMERGENCY_INFO) {
-            sharedPreferences.edit().remove(key).commit();
+            editor.remove(key);
         }
-        sharedPreferences.edit().remove(PreferenceKeys.KEY_EMERGENCY_CONTACTS).commit();
+        editor.remove(PreferenceKeys.KEY_EMERGENCY_CONTACTS).apply();
+        EmergencyContactSnapshot.delete(this);
+        ContactReconciler.reset(this);
+        // No contacts are left to prune.
+        EmergencyContactsPruneJobService.cancel(this);
         // Show the settings suggestion again, since no emergency info is set.
         PreferenceUtils.enableSettingsSuggestion(this);
 
@@ -31,6 +31,7 @@ import androidx.preference.Preference.OnPreferenceChangeListener;
 import androidx.preference.PreferenceFragment;
 import androidx.preference.PreferenceGroup;
 
+import com.android.emergency.EmergencyInfoRepository;
 import com.android.emergency.PreferenceKeys;
 import com.android.emergency.R;
 import com.android.emergency.ReloadablePreferenceInterface;
@@ -61,6 +62,9 @@ public class EditInfoFragment extends PreferenceFragment {
 
     private EmergencyNamePreference mEmergencyNamePreference;
 
+    /** The emergency info shown by the preferences, or null before they were first reloaded. */
+    private EmergencyInfoRepository.Snapshot mEmergencyInfo;
+
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
         setPreferencesFromResource(R.xml.edit_emergency_info, rootKey);
@@ -111,10 +115,17 @@ public class EditInfoFragment extends PreferenceFragment {
 
     /** Reloads the contacts by reading the value from the shared preferences. */
     public void reloadFromPreference() {
+        EmergencyInfoRepository.Snapshot emergencyInfo =
+                EmergencyInfoRepository.getInstance(getContext()).getSnapshot();
         for (Preference preference : mMedicalInfoPreferences.values()) {
             ReloadablePreferenceInterface reloadablePreference =
                     (ReloadablePreferenceInterface) preference;
-            reloadablePreference.reloadFromPreference();
+            // Only reload the fields that changed since the last reload.
+            String key = preference.getKey();
+            if (mEmergencyInfo == null
+                    || !emergencyInfo.getField(key).equals(mEmergencyInfo.getField(key))) {
+                reloadablePreference.reloadFromPreference();
+            }
             if (reloadablePreference.isNotSet()) {
                 getMedicalInfoParent().removePreference(preference);
             } else {
@@ -123,6 +134,7 @@ public class EditInfoFragment extends PreferenceFragment {
             }
         }
         mEmergencyContactsPreferenceCategory.reloadFromPreference();
+        mEmergencyInfo = emergencyInfo;
     }
 
     @Override
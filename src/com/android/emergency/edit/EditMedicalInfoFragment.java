@@ -22,6 +22,7 @@ import android.os.Bundle;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceFragment;
 
+import com.android.emergency.EmergencyInfoRepository;
 import com.android.emergency.PreferenceKeys;
 import com.android.emergency.R;
 import com.android.emergency.ReloadablePreferenceInterface;
@@ -41,6 +42,9 @@ public class EditMedicalInfoFragment extends PreferenceFragment {
 
     private EmergencyNamePreference mEmergencyNamePreference;
 
+    /** The emergency info shown by the preferences, or null before they were first reloaded. */
+    private EmergencyInfoRepository.Snapshot mEmergencyInfo;
+
     private static final String DIALOG_PREFERENCE_TAG = "dialog_preference";
 
     @Override
@@ -107,13 +111,24 @@ public class EditMedicalInfoFragment extends PreferenceFragment {
 
     /** Reloads all the preferences by reading the value from the shared preferences. */
     public void reloadFromPreference() {
+        EmergencyInfoRepository.Snapshot emergencyInfo =
+                EmergencyInfoRepository.getInstance(getActivity()).getSnapshot();
+        if (emergencyInfo == mEmergencyInfo) {
+            return;
+        }
         for (String preferenceKey : PreferenceKeys.KEYS_EDIT_EMERGENCY_INFO) {
+            // Only reload the fields that changed since the last reload.
+            if (mEmergencyInfo != null && emergencyInfo.getField(preferenceKey)
+                    .equals(mEmergencyInfo.getField(preferenceKey))) {
+                continue;
+            }
             ReloadablePreferenceInterface preference = (ReloadablePreferenceInterface)
                     findPreference(preferenceKey);
             if (preference != null) {
                 preference.reloadFromPreference();
             }
         }
+        mEmergencyInfo = emergencyInfo;
     }
 
     public static Fragment newInstance() {
@@ -25,7 +25,10 @@ import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import androidx.annotation.NonNull;
@@ -41,7 +44,8 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.Toast;
 
-import com.android.emergency.CircleFramedDrawable;
+import com.android.emergency.AvatarCache;
+import com.android.emergency.EmergencyContactCache;
 import com.android.emergency.EmergencyContactManager;
 import com.android.emergency.R;
 import com.android.internal.annotations.VisibleForTesting;
@@ -49,6 +53,8 @@ import com.android.internal.logging.MetricsLogger;
 import com.android.internal.logging.nano.MetricsProto.MetricsEvent;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 
 /**
@@ -58,16 +64,33 @@ public class ContactPreference extends Preference {
 
     private static final String TAG = "ContactPreference";
 
-    static final ContactFactory DEFAULT_CONTACT_FACTORY = new ContactFactory() {
+    static final ContactFactory DEFAULT_CONTACT_FACTORY = new BulkContactFactory() {
         @Override
         public EmergencyContactManager.Contact getContact(Context context, Uri phoneUri) {
-            return EmergencyContactManager.getContact(context, phoneUri);
+            return EmergencyContactCache.getInstance(context).getContact(context, phoneUri);
+        }
+
+        @Override
+        public Map<Uri, EmergencyContactManager.Contact> getContacts(Context context,
+                List<Uri> phoneUris) {
+            return EmergencyContactCache.getInstance(context).getContacts(context, phoneUris);
         }
     };
 
+    /** Executor on which contacts are resolved and their icons rendered. */
+    static final Executor DEFAULT_CONTACT_LOAD_EXECUTOR = AsyncTask.THREAD_POOL_EXECUTOR;
+
     private final ContactFactory mContactFactory;
-    private EmergencyContactManager.Contact mContact;
+    private final Executor mContactLoadExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private Uri mPhoneUri;
+    /** The displayed contact, or null while it is being resolved. */
+    @Nullable private EmergencyContactManager.Contact mContact;
+    @Nullable private ContactLoadTask mPendingLoad;
+    /** A load that was cancelled when this preference was detached, to resume on attach. */
+    @Nullable private ContactLoadTask mInterruptedLoad;
     @Nullable private RemoveContactPreferenceListener mRemoveContactPreferenceListener;
+    @Nullable private OnContactLoadFailedListener mOnContactLoadFailedListener;
     @Nullable private AlertDialog mRemoveContactDialog;
 
     /**
@@ -80,6 +103,16 @@ public class ContactPreference extends Preference {
         void onRemoveContactPreference(ContactPreference preference);
     }
 
+    /**
+     * Listener for contacts that could not be resolved from their phone uri.
+     */
+    interface OnContactLoadFailedListener {
+        /**
+         * Called on the main thread when the contact of {@code preference} failed to load.
+         */
+        void onContactLoadFailed(ContactPreference preference);
+    }
+
     /**
      * Interface for getting a contact for a phone number Uri.
      */
@@ -94,9 +127,26 @@ public class ContactPreference extends Preference {
         EmergencyContactManager.Contact getContact(Context context, Uri phoneUri);
     }
 
+    /**
+     * A {@link ContactFactory} that can resolve several phone number Uris at once.
+     */
+    public interface BulkContactFactory extends ContactFactory {
+        /**
+         * Gets the {@link EmergencyContactManager.Contact}s for several phone {@link Uri}s.
+         *
+         * @param context The context to use.
+         * @param phoneUris The phone uris.
+         * @return the contacts keyed by phone uri. Phone uris that could not be resolved are
+         *         omitted.
+         */
+        Map<Uri, EmergencyContactManager.Contact> getContacts(Context context,
+                List<Uri> phoneUris);
+    }
+
     public ContactPreference(Context context, AttributeSet attributes) {
         super(context, attributes);
         mContactFactory = DEFAULT_CONTACT_FACTORY;
+        mContactLoadExecutor = DEFAULT_CONTACT_LOAD_EXECUTOR;
     }
 
     /**
@@ -104,31 +154,125 @@ public class ContactPreference extends Preference {
      * the Uri.
      */
     public ContactPreference(Context context, @NonNull Uri phoneUri) {
-        this(context, phoneUri, DEFAULT_CONTACT_FACTORY);
+        this(context, phoneUri, DEFAULT_CONTACT_FACTORY, DEFAULT_CONTACT_LOAD_EXECUTOR);
     }
 
     @VisibleForTesting
     ContactPreference(Context context, @NonNull Uri phoneUri,
-            @NonNull ContactFactory contactFactory) {
+            @NonNull ContactFactory contactFactory, @NonNull Executor contactLoadExecutor) {
+        this(context, contactFactory, contactLoadExecutor);
+        setPhoneUri(phoneUri);
+    }
+
+    /**
+     * Instantiates a ContactPreference that displays an already resolved emergency contact.
+     * {@code contactFactory} is used when the contact is reloaded through {@link #setPhoneUri}.
+     */
+    ContactPreference(Context context, @NonNull EmergencyContactManager.Contact contact,
+            @NonNull ContactFactory contactFactory, @NonNull Executor contactLoadExecutor) {
+        this(context, contactFactory, contactLoadExecutor);
+        setContact(contact);
+    }
+
+    /**
+     * Instantiates a ContactPreference that displays nothing, until either {@link #setPhoneUri},
+     * {@link #setContact} or {@link #showPlaceholder} is called.
+     */
+    ContactPreference(Context context, @NonNull ContactFactory contactFactory,
+            @NonNull Executor contactLoadExecutor) {
         super(context);
         mContactFactory = contactFactory;
+        mContactLoadExecutor = contactLoadExecutor;
         setOrder(DEFAULT_ORDER);
-
-        setPhoneUri(phoneUri);
-
         setWidgetLayoutResource(R.layout.preference_user_action_widget);
         setPersistent(false);
     }
 
+    /**
+     * Displays the contact indexed by {@code phoneUri}. A placeholder is shown until the contact
+     * has been resolved in the background.
+     */
     public void setPhoneUri(@NonNull Uri phoneUri) {
-        if (mContact != null && !phoneUri.equals(mContact.getPhoneUri()) &&
-                mRemoveContactDialog != null) {
+        if (updatePhoneUri(phoneUri)) {
+            bindPlaceholder();
+        }
+        startLoad(new ContactLoadTask(phoneUri, null /* contact */));
+    }
+
+    /**
+     * Displays {@code contact}, which was already resolved from its phone uri. Its icon is
+     * rendered in the background.
+     */
+    public void setContact(@NonNull EmergencyContactManager.Contact contact) {
+        if (updatePhoneUri(contact.getPhoneUri())) {
+            setIcon(getContext().getDrawable(R.drawable.ic_account_circle_filled_24dp));
+        }
+        bindContact(contact);
+        startLoad(new ContactLoadTask(contact.getPhoneUri(), contact));
+    }
+
+    /**
+     * Shows a placeholder for the contact indexed by {@code phoneUri}, without resolving it: the
+     * caller is expected to resolve it and call {@link #setContact}.
+     */
+    void showPlaceholder(@NonNull Uri phoneUri) {
+        cancelPendingLoad();
+        mInterruptedLoad = null;
+        if (updatePhoneUri(phoneUri)) {
+            bindPlaceholder();
+        }
+    }
+
+    void setOnContactLoadFailedListener(@Nullable OnContactLoadFailedListener listener) {
+        mOnContactLoadFailedListener = listener;
+    }
+
+    @Override
+    public void onAttached() {
+        super.onAttached();
+        // Resume the load that was cancelled when this preference was detached, be it the
+        // resolution of the contact or only the render of its icon.
+        if (mInterruptedLoad != null) {
+            ContactLoadTask interruptedLoad = mInterruptedLoad;
+            startLoad(new ContactLoadTask(interruptedLoad.mPhoneUri,
+                    interruptedLoad.mResolvedContact));
+        }
+    }
+
+    @Override
+    public void onDetached() {
+        super.onDetached();
+        if (mPendingLoad != null) {
+            mInterruptedLoad = mPendingLoad;
+            cancelPendingLoad();
+        }
+    }
+
+    /** Sets the phone uri and returns whether it refers to a different contact than before. */
+    private boolean updatePhoneUri(@NonNull Uri phoneUri) {
+        if (phoneUri.equals(mPhoneUri)) {
+            return false;
+        }
+        if (mPhoneUri != null && mRemoveContactDialog != null) {
             mRemoveContactDialog.dismiss();
         }
-        mContact = mContactFactory.getContact(getContext(), phoneUri);
+        mPhoneUri = phoneUri;
+        setKey(phoneUri.toString());
+        return true;
+    }
+
+    /** Shows an empty row while the contact is being resolved. */
+    private void bindPlaceholder() {
+        mContact = null;
+        setTitle(null);
+        setSummary(null);
+        setIcon(getContext().getDrawable(R.drawable.ic_account_circle_filled_24dp));
+    }
+
+    private void bindContact(@NonNull EmergencyContactManager.Contact contact) {
+        mContact = contact;
 
         setTitle(mContact.getName());
-        setKey(mContact.getPhoneUri().toString());
         String summary = mContact.getPhoneType() == null ?
                 mContact.getPhoneNumber() :
                 String.format(
@@ -144,16 +288,89 @@ public class ContactPreference extends Preference {
                     String.format(getContext().getString(R.string.remove_contact),
                             mContact.getName()));
         }
+    }
 
-        //TODO: Consider doing the following in a non-UI thread.
-        Drawable icon;
-        if (mContact.getPhoto() != null) {
-            icon = new CircleFramedDrawable(mContact.getPhoto(),
-                    (int) getContext().getResources().getDimension(R.dimen.circle_avatar_size));
-        } else {
-            icon = getContext().getDrawable(R.drawable.ic_account_circle_filled_24dp);
+    private void startLoad(ContactLoadTask task) {
+        cancelPendingLoad();
+        mInterruptedLoad = null;
+        mPendingLoad = task;
+        mContactLoadExecutor.execute(task);
+    }
+
+    private void cancelPendingLoad() {
+        if (mPendingLoad != null) {
+            mPendingLoad.mCancelled = true;
+            mPendingLoad = null;
+        }
+    }
+
+    /** Called on the main thread once {@code task} resolved the contact and rendered its icon. */
+    private void onContactLoaded(ContactLoadTask task, EmergencyContactManager.Contact contact,
+            @Nullable Drawable icon) {
+        if (task != mPendingLoad) {
+            // Superseded by another load, or cancelled.
+            return;
+        }
+        mPendingLoad = null;
+        bindContact(contact);
+        setIcon(icon != null ? icon
+                : getContext().getDrawable(R.drawable.ic_account_circle_filled_24dp));
+    }
+
+    /** Called on the main thread when {@code task} could not resolve the contact. */
+    private void onContactLoadFailed(ContactLoadTask task, IllegalArgumentException e) {
+        if (task != mPendingLoad) {
+            return;
+        }
+        mPendingLoad = null;
+        Log.w(TAG, "Unable to load contact for phoneUri: " + task.mPhoneUri, e);
+        if (mOnContactLoadFailedListener != null) {
+            mOnContactLoadFailedListener.onContactLoadFailed(this);
+        }
+    }
+
+    /** Resolves a contact if needed and renders its icon, off the main thread. */
+    private class ContactLoadTask implements Runnable {
+        private final Uri mPhoneUri;
+        @Nullable private final EmergencyContactManager.Contact mResolvedContact;
+        private volatile boolean mCancelled;
+
+        ContactLoadTask(Uri phoneUri, @Nullable EmergencyContactManager.Contact contact) {
+            mPhoneUri = phoneUri;
+            mResolvedContact = contact;
+        }
+
+        @Override
+        public void run() {
+            if (mCancelled) {
+                return;
+            }
+            final EmergencyContactManager.Contact contact;
+            try {
+                contact = mResolvedContact != null
+                        ? mResolvedContact
+                        : mContactFactory.getContact(getContext(), mPhoneUri);
+            } catch (IllegalArgumentException e) {
+                // Always post failures, so that listeners never run in the middle of the caller
+                // of setPhoneUri.
+                mMainHandler.post(() -> onContactLoadFailed(this, e));
+                return;
+            }
+            if (mCancelled) {
+                return;
+            }
+            final Drawable icon = contact.getPhoto() == null ? null
+                    : AvatarCache.getInstance(getContext()).getContactAvatar(
+                            contact.getPhotoId(), contact.getLastUpdatedTimestamp(),
+                            contact.getPhoto(),
+                            (int) getContext().getResources().getDimension(
+                                    R.dimen.circle_avatar_size));
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                onContactLoaded(this, contact, icon);
+            } else {
+                mMainHandler.post(() -> onContactLoaded(this, contact, icon));
+            }
         }
-        setIcon(icon);
     }
 
     /** Listener to be informed when a contact preference should be deleted. */
@@ -182,7 +399,7 @@ public class ContactPreference extends Preference {
                     }
                 });
         builder.setMessage(String.format(getContext().getString(R.string.remove_contact),
-                mContact.getName()));
+                mContact != null ? mContact.getName() : ""));
         mRemoveContactDialog = builder.create();
     }
 
@@ -204,10 +421,11 @@ public class ContactPreference extends Preference {
     }
 
     public Uri getPhoneUri() {
-        return mContact.getPhoneUri();
+        return mPhoneUri;
     }
 
-    @VisibleForTesting
+    /** Returns the displayed contact, or null while it is being resolved. */
+    @Nullable
     EmergencyContactManager.Contact getContact() {
         return mContact;
     }
@@ -221,6 +439,10 @@ public class ContactPreference extends Preference {
      * Calls the contact.
      */
     public void callContact() {
+        if (mContact == null) {
+            // Still loading: the phone number is not known yet.
+            return;
+        }
         // Use TelecomManager to place the call; this APK has CALL_PRIVILEGED permission so it will
         // be able to call emergency numbers.
         TelecomManager tm = (TelecomManager) getContext().getSystemService(Context.TELECOM_SERVICE);
@@ -232,6 +454,9 @@ public class ContactPreference extends Preference {
      * Displays a contact card for the contact.
      */
     public void displayContact() {
+        if (mContact == null) {
+            return;
+        }
         Intent displayIntent = new Intent(Intent.ACTION_VIEW)
                 .setData(mContact.getContactLookupUri())
                 .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
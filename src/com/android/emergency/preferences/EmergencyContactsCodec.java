@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.preferences;
+
+import android.content.ContentUris;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.provider.ContactsContract.CommonDataKinds.Phone;
+import android.util.Base64;
+import android.util.Log;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Encodes the emergency contacts stored in shared preferences.
+ *
+ * <p>The current format is {@link #PREFIX} followed by the Base64 encoding of:
+ * <ul>
+ * <li>the number of contacts, as a varint;</li>
+ * <li>one kind byte per contact: a {@link Phone#CONTENT_URI} row, a
+ * {@link ContactsContract.Data#CONTENT_URI} row, or a uri of the string table;</li>
+ * <li>one varint per contact: the row id, or the index of the uri in the string table;</li>
+ * <li>the string table: its size as a varint, then each uri as a varint length and UTF-8.</li>
+ * </ul>
+ * Decoding the usual phone uris is thus a few array reads, without any uri parsing.
+ *
+ * <p>The legacy format, the uris joined with {@link #LEGACY_SEPARATOR}, is still decoded so that
+ * it can be migrated.
+ */
+class EmergencyContactsCodec {
+    private static final String TAG = "EmergencyContactsCodec";
+
+    /** Marks, and versions, the current format. Legacy values always start with a uri scheme. */
+    static final String PREFIX = "v2:";
+    static final char LEGACY_SEPARATOR = '|';
+
+    private static final byte KIND_PHONE = 0;
+    private static final byte KIND_DATA = 1;
+    private static final byte KIND_STRING = 2;
+
+    private EmergencyContactsCodec() {
+    }
+
+    /** Returns the encoding of {@code emergencyContacts}, or an empty string if there are none. */
+    static String encode(List<Uri> emergencyContacts) {
+        if (emergencyContacts.isEmpty()) {
+            return "";
+        }
+        final int count = emergencyContacts.size();
+        byte[] kinds = new byte[count];
+        long[] values = new long[count];
+        List<byte[]> strings = new ArrayList<>();
+        int stringsLength = 0;
+        for (int i = 0; i < count; i++) {
+            Uri uri = emergencyContacts.get(i);
+            long id = getId(uri, Phone.CONTENT_URI);
+            if (id >= 0) {
+                kinds[i] = KIND_PHONE;
+                values[i] = id;
+                continue;
+            }
+            id = getId(uri, ContactsContract.Data.CONTENT_URI);
+            if (id >= 0) {
+                kinds[i] = KIND_DATA;
+                values[i] = id;
+                continue;
+            }
+            byte[] string = uri.toString().getBytes(StandardCharsets.UTF_8);
+            kinds[i] = KIND_STRING;
+            values[i] = strings.size();
+            strings.add(string);
+            stringsLength += string.length;
+        }
+
+        // Varints take at most 10 bytes.
+        ByteBuffer buffer = ByteBuffer.allocate(
+                10 * (2 + count + strings.size()) + count + stringsLength);
+        putVarint(buffer, count);
+        buffer.put(kinds);
+        for (long value : values) {
+            putVarint(buffer, value);
+        }
+        putVarint(buffer, strings.size());
+        for (byte[] string : strings) {
+            putVarint(buffer, string.length);
+            buffer.put(string);
+        }
+        return PREFIX + Base64.encodeToString(
+                buffer.array(), 0, buffer.position(), Base64.NO_WRAP | Base64.NO_PADDING);
+    }
+
+    /** Decodes {@code value}, in the current or the legacy format. */
+    static List<Uri> decode(String value) {
+        if (value == null || value.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!isCurrentFormat(value)) {
+            return decodeLegacy(value);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(
+                    Base64.decode(value.substring(PREFIX.length()), Base64.NO_WRAP));
+            final int count = getLength(buffer);
+            byte[] kinds = new byte[count];
+            buffer.get(kinds);
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = getVarint(buffer);
+            }
+            String[] strings = new String[getLength(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] string = new byte[getLength(buffer)];
+                buffer.get(string);
+                strings[i] = new String(string, StandardCharsets.UTF_8);
+            }
+
+            List<Uri> emergencyContacts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                switch (kinds[i]) {
+                    case KIND_PHONE:
+                        emergencyContacts.add(
+                                ContentUris.withAppendedId(Phone.CONTENT_URI, values[i]));
+                        break;
+                    case KIND_DATA:
+                        emergencyContacts.add(ContentUris.withAppendedId(
+                                ContactsContract.Data.CONTENT_URI, values[i]));
+                        break;
+                    default:
+                        emergencyContacts.add(Uri.parse(strings[(int) values[i]]));
+                        break;
+                }
+            }
+            return emergencyContacts;
+        } catch (IllegalArgumentException | BufferUnderflowException
+                | IndexOutOfBoundsException e) {
+            Log.w(TAG, "Unable to decode emergency contacts", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /** Returns whether {@code value} is in the current format, i.e. does not need a migration. */
+    static boolean isCurrentFormat(String value) {
+        return value.isEmpty() || value.startsWith(PREFIX);
+    }
+
+    /** Returns the uris of a legacy string set, in the current format. */
+    static String encodeLegacySet(Collection<String> emergencyContacts) {
+        List<Uri> uris = new ArrayList<>(emergencyContacts.size());
+        for (String emergencyContact : emergencyContacts) {
+            if (emergencyContact != null && !emergencyContact.isEmpty()) {
+                uris.add(Uri.parse(emergencyContact));
+            }
+        }
+        return encode(uris);
+    }
+
+    private static List<Uri> decodeLegacy(String value) {
+        List<Uri> emergencyContacts = new ArrayList<>();
+        int start = 0;
+        while (start <= value.length()) {
+            int end = value.indexOf(LEGACY_SEPARATOR, start);
+            if (end < 0) {
+                end = value.length();
+            }
+            if (end > start) {
+                emergencyContacts.add(Uri.parse(value.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return emergencyContacts;
+    }
+
+    /** Returns the id of {@code uri} if it is exactly {@code base} followed by an id, or -1. */
+    private static long getId(Uri uri, Uri base) {
+        String value = uri.toString();
+        String prefix = base.toString() + "/";
+        if (!value.startsWith(prefix)) {
+            return -1;
+        }
+        String id = value.substring(prefix.length());
+        if (id.isEmpty() || id.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return -1;
+            }
+        }
+        long parsedId = Long.parseLong(id);
+        // Only encode ids that decode back to the same uri, e.g. without leading zeros.
+        return Long.toString(parsedId).equals(id) ? parsedId : -1;
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a count or a length, which can't be larger than the remaining bytes since each item
+     * takes at least one byte. Rejects corrupt values before anything is allocated for them.
+     */
+    private static int getLength(ByteBuffer buffer) {
+        long length = getVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        return (int) length;
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -20,6 +20,9 @@ import android.content.SharedPreferences;
 import android.content.res.TypedArray;
 import android.net.Uri;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.UserManager;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
@@ -28,7 +31,11 @@ import android.util.AttributeSet;
 import android.util.Log;
 import android.widget.Toast;
 
+import com.android.emergency.ContactReconciler;
+import com.android.emergency.EmergencyContactCache;
 import com.android.emergency.EmergencyContactManager;
+import com.android.emergency.EmergencyContactSnapshot;
+import com.android.emergency.EmergencyContactsPruneJobService;
 import com.android.emergency.R;
 import com.android.emergency.ReloadablePreferenceInterface;
 import com.android.emergency.util.PreferenceUtils;
@@ -37,33 +44,54 @@ import com.android.internal.logging.MetricsLogger;
 import com.android.internal.logging.nano.MetricsProto.MetricsEvent;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * Custom {@link PreferenceCategory} that deals with contacts being deleted from the contacts app.
  *
  * <p>Contacts are stored internally using their ContactsContract.CommonDataKinds.Phone.CONTENT_URI.
+ * The stored contacts are only ever written on the main thread, so that each write sees the
+ * previous ones: writes from other threads, like the removal of deleted contacts, are posted to
+ * it.
  */
 public class EmergencyContactsPreference extends PreferenceCategory
         implements ReloadablePreferenceInterface,
-        ContactPreference.RemoveContactPreferenceListener {
+        ContactPreference.RemoveContactPreferenceListener,
+        ContactPreference.OnContactLoadFailedListener {
 
     private static final String TAG = "EmergencyContactsPreference";
 
-    private static final String CONTACT_SEPARATOR = "|";
-    private static final String QUOTE_CONTACT_SEPARATOR = Pattern.quote(CONTACT_SEPARATOR);
-    private static final ContactValidator DEFAULT_CONTACT_VALIDATOR = new ContactValidator() {
+    private static final ContactValidator DEFAULT_CONTACT_VALIDATOR = new BulkContactValidator() {
         @Override
         public boolean isValidEmergencyContact(Context context, Uri phoneUri) {
-            return EmergencyContactManager.isValidEmergencyContact(context, phoneUri);
+            return EmergencyContactCache.getInstance(context)
+                    .isValidEmergencyContact(context, phoneUri);
+        }
+
+        @Override
+        public List<Uri> getValidEmergencyContacts(Context context, List<Uri> phoneUris) {
+            if (EmergencyContactSnapshot.isUserLocked(context)) {
+                // The contacts provider is unavailable: rely on the cache's snapshot.
+                return EmergencyContactCache.getInstance(context)
+                        .getValidEmergencyContacts(context, phoneUris);
+            }
+            return ContactReconciler.getValidEmergencyContacts(context, phoneUris);
         }
     };
 
     private final ContactValidator mContactValidator;
     private final ContactPreference.ContactFactory mContactFactory;
+    private final Executor mContactLoadExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    /** The bulk lookup of the displayed contacts, or null if none is running. */
+    @Nullable private ContactsLoadTask mPendingContactsLoad;
     /** Stores the emergency contact's ContactsContract.CommonDataKinds.Phone.CONTENT_URI */
     private List<Uri> mEmergencyContacts = new ArrayList<Uri>();
     private boolean mEmergencyContactsSet = false;
@@ -82,27 +110,41 @@ public class EmergencyContactsPreference extends PreferenceCategory
         boolean isValidEmergencyContact(Context context, Uri phoneUri);
     }
 
+    /**
+     * A {@link ContactValidator} that can validate several phone number Uris at once.
+     */
+    public interface BulkContactValidator extends ContactValidator {
+        /**
+         * Returns the phone Uris of {@code phoneUris} that represent valid emergency contacts.
+         *
+         * @param context The context to use.
+         * @param phoneUris The phone uris.
+         * @return the valid phone uris, in the same order as {@code phoneUris}.
+         */
+        List<Uri> getValidEmergencyContacts(Context context, List<Uri> phoneUris);
+    }
+
     public EmergencyContactsPreference(Context context, AttributeSet attrs) {
-        this(context, attrs, DEFAULT_CONTACT_VALIDATOR, ContactPreference.DEFAULT_CONTACT_FACTORY);
+        this(context, attrs, DEFAULT_CONTACT_VALIDATOR, ContactPreference.DEFAULT_CONTACT_FACTORY,
+                ContactPreference.DEFAULT_CONTACT_LOAD_EXECUTOR);
     }
 
     @VisibleForTesting
     EmergencyContactsPreference(Context context, AttributeSet attrs,
             @NonNull ContactValidator contactValidator,
-            @NonNull ContactPreference.ContactFactory contactFactory) {
+            @NonNull ContactPreference.ContactFactory contactFactory,
+            @NonNull Executor contactLoadExecutor) {
         super(context, attrs);
         mContactValidator = contactValidator;
         mContactFactory = contactFactory;
+        mContactLoadExecutor = contactLoadExecutor;
     }
 
     @Override
     protected void onSetInitialValue(boolean restorePersistedValue, Object defaultValue) {
-        setEmergencyContacts(restorePersistedValue ?
-                getPersistedEmergencyContacts() :
-                deserializeAndFilter(getKey(),
-                        getContext(),
-                        (String) defaultValue,
-                        mContactValidator));
+        loadEmergencyContacts(restorePersistedValue ?
+                getPersistedString("") :
+                (String) defaultValue);
     }
 
     @Override
@@ -112,7 +154,7 @@ public class EmergencyContactsPreference extends PreferenceCategory
 
     @Override
     public void reloadFromPreference() {
-        setEmergencyContacts(getPersistedEmergencyContacts());
+        loadEmergencyContacts(getPersistedString(""));
     }
 
     @Override
@@ -132,6 +174,19 @@ public class EmergencyContactsPreference extends PreferenceCategory
         }
     }
 
+    @Override
+    public void onContactLoadFailed(ContactPreference contactPreference) {
+        MetricsLogger.action(getContext(), MetricsEvent.ACTION_GET_CONTACT, 1);
+        Uri phoneUri = contactPreference.getPhoneUri();
+        if (mEmergencyContacts.contains(phoneUri)) {
+            // Set the contacts again: something went wrong when retrieving information about the
+            // stored phone Uri.
+            List<Uri> updatedContacts = new ArrayList<Uri>(mEmergencyContacts);
+            updatedContacts.remove(phoneUri);
+            setEmergencyContacts(updatedContacts);
+        }
+    }
+
     /**
      * Adds a new emergency contact. The {@code phoneUri} is the
      * ContactsContract.CommonDataKinds.Phone.CONTENT_URI corresponding to the
@@ -159,6 +214,15 @@ public class EmergencyContactsPreference extends PreferenceCategory
     }
 
     public void setEmergencyContacts(List<Uri> emergencyContacts) {
+        setEmergencyContacts(emergencyContacts, null /* contacts */);
+    }
+
+    /**
+     * Sets the emergency contacts, using {@code contacts} to display the ones it contains instead
+     * of resolving them again.
+     */
+    private void setEmergencyContacts(List<Uri> emergencyContacts,
+            @Nullable Map<Uri, EmergencyContactManager.Contact> contacts) {
         final boolean changed = !mEmergencyContacts.equals(emergencyContacts);
         if (changed || !mEmergencyContactsSet) {
             mEmergencyContacts = emergencyContacts;
@@ -169,52 +233,161 @@ public class EmergencyContactsPreference extends PreferenceCategory
             }
         }
 
-        while (getPreferenceCount() - emergencyContacts.size() > 0) {
-            removePreference(getPreference(0));
+        mPendingContactsLoad = null;
+        if (contacts == null && mContactFactory instanceof ContactPreference.BulkContactFactory) {
+            // Resolve all contacts at once in the background, instead of querying them one by
+            // one. Placeholders are displayed until then.
+            bindPlaceholders(emergencyContacts);
+            mPendingContactsLoad = new ContactsLoadTask(emergencyContacts);
+            mContactLoadExecutor.execute(mPendingContactsLoad);
+        } else {
+            bindContacts(emergencyContacts, contacts);
         }
+        // Enable or disable the settings suggestion, as appropriate.
+        PreferenceUtils.updateSettingsSuggestionState(getContext());
+        MetricsLogger.histogram(getContext(),
+                                "num_emergency_contacts",
+                                Math.min(3, emergencyContacts.size()));
+    }
 
+    /**
+     * Displays {@code emergencyContacts}, using {@code contacts} for the ones it contains. If
+     * {@code contacts} is null, the contacts are resolved one by one by their preferences.
+     */
+    private void bindContacts(List<Uri> emergencyContacts,
+            @Nullable Map<Uri, EmergencyContactManager.Contact> contacts) {
         // Reload the preferences or add new ones if necessary
         Iterator<Uri> it = emergencyContacts.iterator();
         int i = 0;
         Uri phoneUri = null;
-        List<Uri> updatedEmergencyContacts = null;
+        List<EmergencyContactManager.Contact> resolvedContacts = new ArrayList<>();
+        boolean unresolvedContacts = false;
         while (it.hasNext()) {
             ContactPreference contactPreference = null;
             phoneUri = it.next();
-            // setPhoneUri may throw an IllegalArgumentException (also called in the constructor
-            // of ContactPreference)
-            try {
-                if (i < getPreferenceCount()) {
-                    contactPreference = (ContactPreference) getPreference(i);
-                    contactPreference.setPhoneUri(phoneUri);
+            EmergencyContactManager.Contact contact =
+                    contacts == null ? null : contacts.get(phoneUri);
+            if (contacts != null && contact == null) {
+                // The bulk lookup could not resolve this contact: it can't be displayed. It is
+                // removed from the stored contacts by EmergencyContactsPruneJobService.
+                Log.w(TAG, "Unable to resolve contact for phoneUri: " + phoneUri);
+                MetricsLogger.action(getContext(), MetricsEvent.ACTION_GET_CONTACT, 1);
+                unresolvedContacts = true;
+                continue;
+            }
+            if (contact != null) {
+                resolvedContacts.add(contact);
+            }
+            // Contacts that are not resolved yet are loaded in the background; failures are
+            // reported through onContactLoadFailed.
+            if (i < getPreferenceCount()) {
+                contactPreference = (ContactPreference) getPreference(i);
+                if (contact != null) {
+                    contactPreference.setContact(contact);
                 } else {
-                    contactPreference =
-                            new ContactPreference(getContext(), phoneUri, mContactFactory);
-                    onBindContactView(contactPreference);
-                    addPreference(contactPreference);
+                    contactPreference.setPhoneUri(phoneUri);
                 }
-                i++;
-                MetricsLogger.action(getContext(), MetricsEvent.ACTION_GET_CONTACT, 0);
-            } catch (IllegalArgumentException e) {
-                Log.w(TAG, "Caught IllegalArgumentException for phoneUri:"
-                    + phoneUri == null ? "" : phoneUri.toString(), e);
-                MetricsLogger.action(getContext(), MetricsEvent.ACTION_GET_CONTACT, 1);
-                if (updatedEmergencyContacts == null) {
-                    updatedEmergencyContacts = new ArrayList<>(emergencyContacts);
+            } else {
+                contactPreference = contact != null
+                        ? new ContactPreference(getContext(), contact, mContactFactory,
+                                mContactLoadExecutor)
+                        : new ContactPreference(getContext(), phoneUri, mContactFactory,
+                                mContactLoadExecutor);
+                addContactPreference(contactPreference);
+            }
+            i++;
+            MetricsLogger.action(getContext(), MetricsEvent.ACTION_GET_CONTACT, 0);
+        }
+        while (getPreferenceCount() > i) {
+            removePreference(getPreference(getPreferenceCount() - 1));
+        }
+        if (contacts != null && isUserUnlocked(getContext())) {
+            if (unresolvedContacts) {
+                EmergencyContactsPruneJobService.scheduleNow(getContext());
+            }
+            // Keep a copy of the resolved contacts to display them before the user unlocks.
+            EmergencyContactSnapshot.writeAsync(getContext(), resolvedContacts);
+        }
+    }
+
+    /**
+     * Displays a placeholder for each of {@code emergencyContacts}, while they are being resolved.
+     * The contacts that are already displayed are kept as they are.
+     */
+    private void bindPlaceholders(List<Uri> emergencyContacts) {
+        Map<Uri, EmergencyContactManager.Contact> displayedContacts = new HashMap<>();
+        for (int i = 0; i < getPreferenceCount(); i++) {
+            ContactPreference contactPreference = (ContactPreference) getPreference(i);
+            if (contactPreference.getContact() != null) {
+                displayedContacts.put(contactPreference.getPhoneUri(),
+                        contactPreference.getContact());
+            }
+        }
+        int i = 0;
+        for (Uri phoneUri : emergencyContacts) {
+            EmergencyContactManager.Contact contact = displayedContacts.get(phoneUri);
+            if (i < getPreferenceCount()) {
+                ContactPreference contactPreference = (ContactPreference) getPreference(i);
+                if (contact == null) {
+                    contactPreference.showPlaceholder(phoneUri);
+                } else if (contact != contactPreference.getContact()) {
+                    contactPreference.setContact(contact);
+                }
+            } else {
+                ContactPreference contactPreference;
+                if (contact != null) {
+                    contactPreference = new ContactPreference(getContext(), contact,
+                            mContactFactory, mContactLoadExecutor);
+                } else {
+                    contactPreference = new ContactPreference(getContext(), mContactFactory,
+                            mContactLoadExecutor);
+                    contactPreference.showPlaceholder(phoneUri);
                 }
-                updatedEmergencyContacts.remove(phoneUri);
+                addContactPreference(contactPreference);
             }
+            i++;
         }
-        if (updatedEmergencyContacts != null) {
-            // Set the contacts again: something went wrong when retrieving information about the
-            // stored phone Uris.
-            setEmergencyContacts(updatedEmergencyContacts);
+        while (getPreferenceCount() > i) {
+            removePreference(getPreference(getPreferenceCount() - 1));
+        }
+    }
+
+    private void addContactPreference(ContactPreference contactPreference) {
+        contactPreference.setOnContactLoadFailedListener(this);
+        onBindContactView(contactPreference);
+        addPreference(contactPreference);
+    }
+
+    /** Called on the main thread once {@code task} resolved the displayed contacts. */
+    private void onContactsLoaded(ContactsLoadTask task,
+            Map<Uri, EmergencyContactManager.Contact> contacts) {
+        if (task != mPendingContactsLoad) {
+            // Superseded by other contacts.
+            return;
+        }
+        mPendingContactsLoad = null;
+        bindContacts(task.mEmergencyContacts, contacts);
+    }
+
+    /** Resolves the displayed contacts with a single lookup, off the main thread. */
+    private class ContactsLoadTask implements Runnable {
+        private final List<Uri> mEmergencyContacts;
+
+        ContactsLoadTask(List<Uri> emergencyContacts) {
+            mEmergencyContacts = emergencyContacts;
+        }
+
+        @Override
+        public void run() {
+            final Map<Uri, EmergencyContactManager.Contact> contacts =
+                    ((ContactPreference.BulkContactFactory) mContactFactory)
+                            .getContacts(getContext(), mEmergencyContacts);
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                onContactsLoaded(this, contacts);
+            } else {
+                mMainHandler.post(() -> onContactsLoaded(this, contacts));
+            }
         }
-        // Enable or disable the settings suggestion, as appropriate.
-        PreferenceUtils.updateSettingsSuggestionState(getContext());
-        MetricsLogger.histogram(getContext(),
-                                "num_emergency_contacts",
-                                Math.min(3, emergencyContacts.size()));
     }
 
     /**
@@ -235,23 +408,107 @@ public class EmergencyContactsPreference extends PreferenceCategory
                 );
     }
 
-    private List<Uri> getPersistedEmergencyContacts() {
-        return deserializeAndFilter(getKey(), getContext(), getPersistedString(""),
-                mContactValidator);
+    /**
+     * Sets the emergency contacts stored in {@code emergencyContactString}. If possible, the
+     * stored contacts are trusted and resolved in a single pass: the ones that do not exist
+     * anymore are not displayed, and left to EmergencyContactsPruneJobService. Otherwise, they are
+     * validated first.
+     */
+    private void loadEmergencyContacts(String emergencyContactString) {
+        if (mContactFactory instanceof ContactPreference.BulkContactFactory) {
+            setEmergencyContacts(deserialize(emergencyContactString));
+        } else {
+            setEmergencyContacts(deserializeAndFilter(getKey(), getContext(),
+                    emergencyContactString, mContactValidator));
+        }
     }
 
     @Override
     protected String getPersistedString(String defaultReturnValue) {
+        SharedPreferences sharedPreferences = getSharedPreferences();
+        if (!shouldPersist() || sharedPreferences == null) {
+            return defaultReturnValue;
+        }
+        return getStoredEmergencyContacts(getContext(), sharedPreferences, getKey(),
+                defaultReturnValue);
+    }
+
+    /**
+     * Returns the emergency contacts stored in {@code sharedPreferences} under {@code key}, in the
+     * current storage format. Contacts stored in a legacy format are migrated once.
+     */
+    public static String getStoredEmergencyContacts(Context context,
+            SharedPreferences sharedPreferences, String key, String defaultValue) {
+        String value;
         try {
-            return super.getPersistedString(defaultReturnValue);
+            value = sharedPreferences.getString(key, defaultValue);
         } catch (ClassCastException e) {
             // Protect against b/28194605: We used to store the contacts using a string set.
-            // If it was a string set, a ClassCastException would have been thrown, and we can
-            // ignore its value. If it is stored as a value of another type, we are potentially
-            // squelching an exception here, but returning the default return value seems reasonable
-            // in either case.
-            return defaultReturnValue;
+            Set<String> legacyValue = null;
+            try {
+                legacyValue = sharedPreferences.getStringSet(key, null);
+            } catch (ClassCastException e2) {
+                // Stored as a value of another type: ignore it.
+            }
+            value = legacyValue == null
+                    ? "" : EmergencyContactsCodec.encodeLegacySet(legacyValue);
+            migrateStoredEmergencyContacts(context, sharedPreferences, key, value);
+            return value;
+        }
+        if (value != null && !EmergencyContactsCodec.isCurrentFormat(value)) {
+            value = EmergencyContactsCodec.encode(EmergencyContactsCodec.decode(value));
+            migrateStoredEmergencyContacts(context, sharedPreferences, key, value);
+        }
+        return value;
+    }
+
+    private static void migrateStoredEmergencyContacts(Context context,
+            SharedPreferences sharedPreferences, String key, String value) {
+        // Avoid updating emergency contacts in direct boot mode.
+        if (!isUserUnlocked(context)) {
+            return;
+        }
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            // Read the contacts again on the main thread, and migrate them if they still need it.
+            new Handler(Looper.getMainLooper()).post(() -> getStoredEmergencyContacts(
+                    context, sharedPreferences, key, "" /* defaultValue */));
+            return;
         }
+        sharedPreferences.edit().putString(key, value).apply();
+    }
+
+    /**
+     * Removes {@code deletedContacts} from the emergency contacts stored under {@code key} in the
+     * default shared preferences. The stored contacts are read again on the main thread when
+     * removing them, so that the contacts added since {@code deletedContacts} were found deleted
+     * are kept. Called on the main thread, the removal is applied before returning. Otherwise, it
+     * is posted to the main thread, without waiting for it.
+     */
+    public static void removeStoredEmergencyContacts(Context context, String key,
+            Collection<Uri> deletedContacts) {
+        Runnable removal = () -> {
+            SharedPreferences sharedPreferences =
+                    PreferenceManager.getDefaultSharedPreferences(context);
+            List<Uri> emergencyContacts = deserialize(getStoredEmergencyContacts(
+                    context, sharedPreferences, key, "" /* defaultValue */));
+            if (emergencyContacts.removeAll(deletedContacts)) {
+                sharedPreferences.edit().putString(key, serialize(emergencyContacts)).apply();
+            }
+        };
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            removal.run();
+        } else {
+            new Handler(Looper.getMainLooper()).post(removal);
+        }
+    }
+
+    /**
+     * Returns the contacts of {@code emergencyContacts} that still exist. This queries the
+     * contacts provider, so it must not be called on the main thread.
+     */
+    public static List<Uri> getValidEmergencyContacts(Context context,
+            List<Uri> emergencyContacts) {
+        return filterEmergencyContacts(context, emergencyContacts, DEFAULT_CONTACT_VALIDATOR);
     }
 
     /**
@@ -267,16 +524,7 @@ public class EmergencyContactsPreference extends PreferenceCategory
 
     /** Converts the Uris to a string representation. */
     public static String serialize(List<Uri> emergencyContacts) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < emergencyContacts.size(); i++) {
-            sb.append(emergencyContacts.get(i).toString());
-            sb.append(CONTACT_SEPARATOR);
-        }
-
-        if (sb.length() > 0) {
-            sb.setLength(sb.length() - 1);
-        }
-        return sb.toString();
+        return EmergencyContactsCodec.encode(emergencyContacts);
     }
 
     @VisibleForTesting
@@ -284,34 +532,62 @@ public class EmergencyContactsPreference extends PreferenceCategory
         // Avoid persisting emergency contacts in direct boot mode.
         if (isUserUnlocked(getContext())) {
             persistString(serialize(emergencyContacts));
+            if (!emergencyContacts.isEmpty()) {
+                // Watch for deleted contacts from now on.
+                EmergencyContactsPruneJobService.schedule(getContext());
+            } else {
+                // Nothing left to prune.
+                EmergencyContactsPruneJobService.cancel(getContext());
+            }
         }
     }
 
     private static List<Uri> deserializeAndFilter(String key, Context context,
                                                   String emergencyContactString,
                                                   ContactValidator contactValidator) {
-        String[] emergencyContactsArray =
-                emergencyContactString.split(QUOTE_CONTACT_SEPARATOR);
-        List<Uri> filteredEmergencyContacts = new ArrayList<Uri>(emergencyContactsArray.length);
-        for (String emergencyContact : emergencyContactsArray) {
-            Uri phoneUri = Uri.parse(emergencyContact);
-            if (contactValidator.isValidEmergencyContact(context, phoneUri)) {
-                filteredEmergencyContacts.add(phoneUri);
+        List<Uri> emergencyContacts = deserialize(emergencyContactString);
+        List<Uri> filteredEmergencyContacts =
+                filterEmergencyContacts(context, emergencyContacts, contactValidator);
+        persistIfFiltered(key, context, emergencyContacts, filteredEmergencyContacts);
+        return filteredEmergencyContacts;
+    }
+
+    private static List<Uri> filterEmergencyContacts(Context context, List<Uri> emergencyContacts,
+            ContactValidator contactValidator) {
+        List<Uri> filteredEmergencyContacts;
+        if (contactValidator instanceof BulkContactValidator) {
+            filteredEmergencyContacts = ((BulkContactValidator) contactValidator)
+                    .getValidEmergencyContacts(context, emergencyContacts);
+        } else {
+            filteredEmergencyContacts = new ArrayList<Uri>(emergencyContacts.size());
+            for (Uri phoneUri : emergencyContacts) {
+                if (contactValidator.isValidEmergencyContact(context, phoneUri)) {
+                    filteredEmergencyContacts.add(phoneUri);
+                }
             }
         }
-        // If not all contacts were added, then we need to overwrite the emergency contacts stored
-        // in shared preferences. This deals with emergency contacts being deleted from contacts:
-        // currently we have no way to being notified when this happens.
-        if (filteredEmergencyContacts.size() != emergencyContactsArray.length) {
+        return filteredEmergencyContacts;
+    }
+
+    /** Converts the string representing the emergency contacts to a list of Uris. */
+    public static List<Uri> deserialize(String emergencyContactString) {
+        return EmergencyContactsCodec.decode(emergencyContactString);
+    }
+
+    private static void persistIfFiltered(String key, Context context,
+            List<Uri> emergencyContacts, List<Uri> filteredEmergencyContacts) {
+        // If not all contacts were added, then we need to remove the missing ones from the
+        // emergency contacts stored in shared preferences. This deals with emergency contacts
+        // being deleted from contacts, which ContactReconciler detects from the deletion and
+        // update timestamps of contacts.
+        if (filteredEmergencyContacts.size() != emergencyContacts.size()) {
             // Avoid updating emergency contacts in direct boot mode.
             if (isUserUnlocked(context)) {
-                String emergencyContactStrings = serialize(filteredEmergencyContacts);
-                SharedPreferences sharedPreferences =
-                        PreferenceManager.getDefaultSharedPreferences(context);
-                sharedPreferences.edit().putString(key, emergencyContactStrings).commit();
+                List<Uri> deletedContacts = new ArrayList<>(emergencyContacts);
+                deletedContacts.removeAll(filteredEmergencyContacts);
+                removeStoredEmergencyContacts(context, key, deletedContacts);
             }
         }
-        return filteredEmergencyContacts;
     }
 
     private static boolean isUserUnlocked(Context context) {
@@ -33,9 +33,10 @@ import android.widget.EditText;
 import android.widget.ImageView;
 import androidx.annotation.VisibleForTesting;
 import androidx.preference.DialogPreference;
+import com.android.emergency.AvatarCache;
 import com.android.emergency.CircleFramedDrawable;
 import com.android.emergency.R;
-import com.android.internal.util.UserIcons;
+import com.android.emergency.UserProfileCache;
 import com.android.settingslib.CustomDialogPreference;
 
 import java.io.File;
@@ -59,7 +60,7 @@ public class EmergencyNamePreference extends CustomDialogPreference {
     public EmergencyNamePreference(Context context, AttributeSet attrs,
             int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
-        setSummary(mUserManager.getUserName());
+        setSummary(UserProfileCache.getInstance(context).getUserName(context));
         setIcon(getCircularUserIcon());
         setDialogLayoutResource(R.layout.edit_user_info_dialog_content);
     }
@@ -87,7 +88,7 @@ public class EmergencyNamePreference extends CustomDialogPreference {
      * Reload user name and photo form UserManager.
      */
     public void reloadFromUserManager() {
-        setSummary(mUserManager.getUserName());
+        setSummary(UserProfileCache.getInstance(getContext()).getUserName(getContext()));
         setIcon(getCircularUserIcon());
     }
 
@@ -145,7 +146,7 @@ public class EmergencyNamePreference extends CustomDialogPreference {
         super.onBindDialogView(view);
 
         mUserNameView = view.findViewById(R.id.user_name);
-        mUserNameView.setText(mUserManager.getUserName());
+        mUserNameView.setText(UserProfileCache.getInstance(getContext()).getUserName(getContext()));
         mUserPhotoView = view.findViewById(R.id.user_photo);
         Drawable drawable;
         if (mSavedPhoto != null) {
@@ -177,22 +178,27 @@ public class EmergencyNamePreference extends CustomDialogPreference {
             // Update the name if changed.
             CharSequence userName = mUserNameView.getText();
             if (!TextUtils.isEmpty(userName)) {
-                if (mUserManager.getUserName() == null
-                        || !userName.toString().equals(mUserManager.getUserName())) {
+                UserProfileCache userProfileCache = UserProfileCache.getInstance(getContext());
+                String currentUserName = userProfileCache.getUserName(getContext());
+                if (currentUserName == null || !userName.toString().equals(currentUserName)) {
                     mUserManager.setUserName(UserHandle.myUserId(), userName.toString());
+                    // Do not wait for ACTION_USER_INFO_CHANGED.
+                    userProfileCache.invalidate();
                     setSummary(userName);
                 }
             }
-            // Update the photo if changed.
+            // Update the photo if a new one was picked.
             Drawable drawable = mEditUserPhotoController.getNewUserPhotoDrawable();
             Bitmap bitmap = mEditUserPhotoController.getNewUserPhotoBitmap();
-            if (drawable != null && bitmap != null
-                    && !drawable.equals(getCircularUserIcon())) {
+            if (drawable != null && bitmap != null) {
                 new AsyncTask<Void, Void, Void>() {
                     @Override
                     protected Void doInBackground(Void... params) {
                         mUserManager.setUserIcon(UserHandle.myUserId(),
                                 mEditUserPhotoController.getNewUserPhotoBitmap());
+                        AvatarCache.getInstance(getContext())
+                                .invalidateUserAvatars(UserHandle.myUserId());
+                        UserProfileCache.getInstance(getContext()).invalidate();
                         return null;
                     }
                 }.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, (Void[]) null);
@@ -211,18 +217,8 @@ public class EmergencyNamePreference extends CustomDialogPreference {
     }
 
     private Drawable getCircularUserIcon() {
-        Bitmap bitmapUserIcon = mUserManager.getUserIcon(UserHandle.myUserId());
-
-        if (bitmapUserIcon == null) {
-            // get default user icon.
-            final Drawable defaultUserIcon = UserIcons.getDefaultUserIcon(
-                    getContext().getResources(), UserHandle.myUserId(), false);
-            bitmapUserIcon = UserIcons.convertToBitmap(defaultUserIcon);
-        }
-        Drawable drawableUserIcon = new CircleFramedDrawable(bitmapUserIcon,
+        return UserProfileCache.getInstance(getContext()).getUserIcon(getContext(),
                 (int) getContext().getResources().getDimension(R.dimen.circle_avatar_size));
-
-        return drawableUserIcon;
     }
 
     @VisibleForTesting
@@ -22,8 +22,8 @@ import androidx.preference.PreferenceViewHolder;
 import android.util.AttributeSet;
 import android.view.View;
 
+import com.android.emergency.EmergencyInfoRepository;
 import com.android.emergency.R;
-import com.android.emergency.util.PreferenceUtils;
 
 /**
  * Sets a listener to be called the contacts when tapping on the preference.
@@ -37,7 +37,7 @@ public class ViewEmergencyContactsPreference extends EmergencyContactsPreference
     public void onBindViewHolder(PreferenceViewHolder holder) {
         super.onBindViewHolder(holder);
         // Hide preference title if has at least one medical info preference is set.
-        if (PreferenceUtils.hasAtLeastOnePreferenceSet(getContext())) {
+        if (EmergencyInfoRepository.getInstance(getContext()).getSnapshot().hasAnyFieldSet()) {
             View preferenceCategoryTitle = holder.findViewById(R.id.emergency_preference_category);
             preferenceCategoryTitle.setVisibility(View.GONE);
         }
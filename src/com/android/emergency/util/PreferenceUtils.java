@@ -15,20 +15,13 @@
  */
 package com.android.emergency.util;
 
-import android.content.ComponentName;
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import androidx.preference.PreferenceManager;
-import android.text.TextUtils;
 
-import com.android.emergency.PreferenceKeys;
+import com.android.emergency.EmergencyInfoRepository;
 import com.android.emergency.edit.EditInfoActivity;
-import com.android.emergency.preferences.EmergencyContactsPreference;
 import com.android.internal.annotations.VisibleForTesting;
 
-import java.util.Collections;
-
 /** Utility methods for dealing with preferences. */
 public class PreferenceUtils {
     @VisibleForTesting
@@ -36,34 +29,13 @@ public class PreferenceUtils {
 
     /** Returns true if there is at least one preference set. */
     public static boolean hasAtLeastOnePreferenceSet(Context context) {
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
-        for (String key : PreferenceKeys.KEYS_VIEW_EMERGENCY_INFO) {
-            if (!TextUtils.isEmpty(prefs.getString(key, ""))) {
-                return true;
-            }
-        }
-        return false;
+        return EmergencyInfoRepository.getInstance(context).getSnapshot().hasAnyFieldSet();
     }
 
-    /** Returns true if there is at least one valid (still existing) emergency contact. */
+    /** Returns true if there is at least one stored emergency contact. */
     public static boolean hasAtLeastOneEmergencyContact(Context context) {
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
-        String emergencyContactsString = "";
-        try {
-            emergencyContactsString = prefs.getString(PreferenceKeys.KEY_EMERGENCY_CONTACTS, "");
-        } catch (ClassCastException e) {
-            // Protect against b/28194605: We used to store the contacts using a string set.
-            // If it is a string set, ignore its value. If it is not a string set it will throw
-            // a ClassCastException
-            prefs.getStringSet(
-                    PreferenceKeys.KEY_EMERGENCY_CONTACTS,
-                    Collections.<String>emptySet());
-        }
-
-        return !EmergencyContactsPreference.deserializeAndFilter(
-                PreferenceKeys.KEY_EMERGENCY_CONTACTS,
-                context,
-                emergencyContactsString).isEmpty();
+        return EmergencyInfoRepository.getInstance(context).getSnapshot()
+                .getEmergencyContactCount() > 0;
     }
 
     /**
@@ -71,26 +43,11 @@ public class PreferenceUtils {
      * emergency settings exist.
      */
     public static void updateSettingsSuggestionState(Context context) {
-        int state = hasAtLeastOnePreferenceOrContactSet(context) ?
-            PackageManager.COMPONENT_ENABLED_STATE_DISABLED :
-            PackageManager.COMPONENT_ENABLED_STATE_ENABLED;
-        setSettingsSuggestionState(context, state);
+        SettingsSuggestionTracker.update(context);
     }
 
     /** Enables the settings suggestion for this application. */
     public static void enableSettingsSuggestion(Context context) {
-        setSettingsSuggestionState(context, PackageManager.COMPONENT_ENABLED_STATE_ENABLED);
-    }
-
-    private static boolean hasAtLeastOnePreferenceOrContactSet(Context context) {
-        return hasAtLeastOnePreferenceSet(context) || hasAtLeastOneEmergencyContact(context);
-    }
-
-    private static void setSettingsSuggestionState(Context context, int state) {
-        String packageName = context.getPackageName();
-        String targetClass = packageName + SETTINGS_SUGGESTION_ACTIVITY_ALIAS;
-        ComponentName name = new ComponentName(packageName, targetClass);
-        PackageManager pm = context.getPackageManager();
-        pm.setComponentEnabledSetting(name, state, PackageManager.DONT_KILL_APP);
+        SettingsSuggestionTracker.setState(context, PackageManager.COMPONENT_ENABLED_STATE_ENABLED);
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.util;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.AsyncTask;
+
+import com.android.emergency.EmergencyInfoRepository;
+import com.android.internal.annotations.VisibleForTesting;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Enables the settings suggestion of this application when no emergency info is set, and
+ * disables it otherwise.
+ *
+ * <p>The state last applied is remembered, so that {@link PackageManager} is only called when the
+ * state changes, and then in the background.
+ */
+public class SettingsSuggestionTracker {
+    /** No state was applied by this process yet. */
+    private static final int STATE_UNKNOWN = -1;
+
+    private static int sAppliedState = STATE_UNKNOWN;
+    private static Executor sExecutor = AsyncTask.SERIAL_EXECUTOR;
+
+    private SettingsSuggestionTracker() {
+    }
+
+    /** Applies the state matching the emergency info currently stored. */
+    public static void update(Context context) {
+        EmergencyInfoRepository.Snapshot emergencyInfo =
+                EmergencyInfoRepository.getInstance(context).getSnapshot();
+        setState(context, emergencyInfo.hasAnyInfo()
+                ? PackageManager.COMPONENT_ENABLED_STATE_DISABLED
+                : PackageManager.COMPONENT_ENABLED_STATE_ENABLED);
+    }
+
+    /** Applies {@code state} to the settings suggestion, unless it is already applied. */
+    public static void setState(Context context, int state) {
+        synchronized (SettingsSuggestionTracker.class) {
+            if (state == sAppliedState) {
+                return;
+            }
+            sAppliedState = state;
+        }
+        String packageName = context.getPackageName();
+        ComponentName name = new ComponentName(packageName,
+                packageName + PreferenceUtils.SETTINGS_SUGGESTION_ACTIVITY_ALIAS);
+        PackageManager pm = context.getPackageManager();
+        // The executor is serial: the last state applied wins.
+        sExecutor.execute(
+                () -> pm.setComponentEnabledSetting(name, state, PackageManager.DONT_KILL_APP));
+    }
+
+    /** Forgets the state applied, and updates the settings suggestion with {@code executor}. */
+    @VisibleForTesting
+    public static synchronized void resetForTesting(Executor executor) {
+        sAppliedState = STATE_UNKNOWN;
+        sExecutor = executor;
+    }
+}
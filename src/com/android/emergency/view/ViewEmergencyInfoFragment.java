@@ -25,6 +25,7 @@ import androidx.preference.PreferenceFragmentCompat;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceManager;
 
+import com.android.emergency.EmergencyInfoRepository;
 import com.android.emergency.PreferenceKeys;
 import com.android.emergency.R;
 import com.android.emergency.ReloadablePreferenceInterface;
@@ -38,6 +39,8 @@ import java.util.List;
 public class ViewEmergencyInfoFragment extends PreferenceFragmentCompat {
     /** A list with all the preferences. */
     private final List<Preference> mPreferences = new ArrayList<Preference>();
+    /** The emergency info shown by the preferences, or null before the first resume. */
+    private EmergencyInfoRepository.Snapshot mEmergencyInfo;
 
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
@@ -66,10 +69,20 @@ public class ViewEmergencyInfoFragment extends PreferenceFragmentCompat {
     @Override
     public void onResume() {
         super.onResume();
+        EmergencyInfoRepository.Snapshot emergencyInfo =
+                EmergencyInfoRepository.getInstance(getContext()).getSnapshot();
+        if (emergencyInfo == mEmergencyInfo) {
+            // Nothing changed since the preferences were last reloaded.
+            return;
+        }
         for (Preference preference : mPreferences) {
             ReloadablePreferenceInterface reloadablePreference =
                     (ReloadablePreferenceInterface) preference;
-            reloadablePreference.reloadFromPreference();
+            String key = preference.getKey();
+            if (mEmergencyInfo == null
+                    || !emergencyInfo.getField(key).equals(mEmergencyInfo.getField(key))) {
+                reloadablePreference.reloadFromPreference();
+            }
             if (reloadablePreference.isNotSet()) {
                 getPreferenceScreen().removePreference(preference);
             } else {
@@ -77,6 +90,7 @@ public class ViewEmergencyInfoFragment extends PreferenceFragmentCompat {
                 getPreferenceScreen().addPreference(preference);
             }
         }
+        mEmergencyInfo = emergencyInfo;
     }
 
     public static Fragment newInstance() {
@@ -21,16 +21,16 @@ import androidx.fragment.app.FragmentManager;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.graphics.Bitmap;
-import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.LayoutRes;
-import android.os.UserHandle;
-import android.os.UserManager;
+import androidx.annotation.Nullable;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayout.TabLayoutOnPageChangeListener;
 import com.google.android.material.tabs.TabLayout.ViewPagerOnTabSelectedListener;
-import androidx.fragment.app.FragmentStatePagerAdapter;
+import androidx.fragment.app.FragmentPagerAdapter;
 import androidx.viewpager.widget.ViewPager;
 import androidx.preference.PreferenceManager;
 
@@ -38,6 +38,7 @@ import android.provider.Settings;
 import android.text.TextUtils;
 import android.util.Log;
 import android.util.Pair;
+import android.util.SparseArray;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
@@ -48,16 +49,14 @@ import android.widget.TextView;
 import android.widget.Toolbar;
 import android.widget.ViewFlipper;
 
-import com.android.emergency.CircleFramedDrawable;
 import com.android.emergency.R;
 import com.android.emergency.edit.EditInfoActivity;
-import com.android.emergency.util.PreferenceUtils;
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.internal.logging.MetricsLogger;
 import com.android.internal.logging.nano.MetricsProto.MetricsEvent;
-import com.android.internal.util.UserIcons;
 
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Activity for viewing emergency information.
@@ -66,6 +65,13 @@ public class ViewInfoActivity extends FragmentActivity {
 
     private static final String TAG = "ViewInfoActivity";
 
+    /** Stable ids of the tabs, used to reuse their fragments. */
+    private static final int TAB_ID_MEDICAL_INFO = 0;
+    private static final int TAB_ID_EMERGENCY_CONTACTS = 1;
+
+    /** Executor on which the state is loaded. */
+    private static final Executor STATE_LOAD_EXECUTOR = AsyncTask.THREAD_POOL_EXECUTOR;
+
     private ImageView mPersonalCardLargeIcon;
     private TextView mPersonalCardLargeItem;
     private SharedPreferences mSharedPreferences;
@@ -74,12 +80,19 @@ public class ViewInfoActivity extends FragmentActivity {
     private ViewPagerAdapter mTabsAdapter;
     private TabLayout mTabLayout;
     private ArrayList<Pair<String, Fragment>> mFragments;
+    /** The ids of the tabs in {@link #mFragments}, in the same order. */
+    private final ArrayList<Integer> mTabIds = new ArrayList<>(2);
+    /** The fragment of each tab, whether or not the tab is shown. */
+    private final SparseArray<Fragment> mTabFragments = new SparseArray<>(2);
     private Menu mMenu;
+    /** The shown state, or null until the first one is loaded. */
+    @Nullable private ViewInfoState mState;
+    @Nullable private StateLoadTask mPendingLoad;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
 
     @Override
     public void setContentView(@LayoutRes int layoutResID) {
         super.setContentView(layoutResID);
-        setupTabs();
         Toolbar toolbar = (Toolbar) findViewById(R.id.action_bar);
         setActionBar(toolbar);
         getActionBar().setDisplayHomeAsUpEnabled(true);
@@ -94,6 +107,21 @@ public class ViewInfoActivity extends FragmentActivity {
         mPersonalCardLargeIcon = (ImageView) findViewById(R.id.personal_card_icon);
         mPersonalCardLargeItem = (TextView) findViewById(R.id.personal_card_large);
         mViewFlipper = (ViewFlipper) findViewById(R.id.view_flipper);
+        mTabLayout = (TabLayout) findViewById(R.id.sliding_tabs);
+
+        // Reuse the fragments restored with the activity, which the pager adapter finds by id.
+        for (Fragment fragment : getSupportFragmentManager().getFragments()) {
+            if (fragment instanceof ViewEmergencyInfoFragment) {
+                mTabFragments.put(TAB_ID_MEDICAL_INFO, fragment);
+            } else if (fragment instanceof ViewEmergencyContactsFragment) {
+                mTabFragments.put(TAB_ID_EMERGENCY_CONTACTS, fragment);
+            }
+        }
+
+        // Nothing is shown until the first state is loaded in the background, from onResume, so
+        // that the screen does not flash the "no info" view.
+        mPersonalCard.setVisibility(View.GONE);
+        mViewFlipper.setVisibility(View.INVISIBLE);
 
         MetricsLogger.visible(this, MetricsEvent.ACTION_VIEW_EMERGENCY_INFO);
     }
@@ -101,35 +129,56 @@ public class ViewInfoActivity extends FragmentActivity {
     @Override
     public void onResume() {
         super.onResume();
-        loadUserInfo();
-        // Update the tabs: new info might have been added/deleted from the edit screen that
-        // could lead to adding/removing a fragment
-        setupTabs();
-        maybeHideTabs();
+        // Load the first state, or check whether the info was edited from the edit screen or the
+        // user settings since it was loaded, in the background.
+        loadState();
     }
 
-    private void loadUserInfo() {
-        UserManager userManager = getSystemService(UserManager.class);
-        if (TextUtils.isEmpty(userManager.getUserName())) {
-            mPersonalCard.setVisibility(View.GONE);
-        } else {
-            mPersonalCard.setVisibility(View.VISIBLE);
-            mPersonalCardLargeItem.setText(userManager.getUserName());
-
-            Bitmap bitmapUserIcon = userManager.getUserIcon(UserHandle.myUserId());
+    @Override
+    protected void onDestroy() {
+        if (mPendingLoad != null) {
+            mPendingLoad.mCancelled = true;
+            mPendingLoad = null;
+        }
+        super.onDestroy();
+    }
 
-            if (bitmapUserIcon == null) {
-                // Get default user icon.
-                Drawable defaultUserIcon = UserIcons.getDefaultUserIcon(
-                        getApplicationContext().getResources(), UserHandle.myUserId(),
-                        false /* light icon */);
-                bitmapUserIcon = UserIcons.convertToBitmap(defaultUserIcon);
-            }
+    private void loadState() {
+        if (mPendingLoad != null) {
+            mPendingLoad.mCancelled = true;
+        }
+        mPendingLoad = new StateLoadTask(mState);
+        STATE_LOAD_EXECUTOR.execute(mPendingLoad);
+    }
 
-            Drawable drawableUserIcon = new CircleFramedDrawable(bitmapUserIcon,
-                    (int) getResources().getDimension(R.dimen.action_bar_size));
+    /** Called on the main thread when {@code task} found a state different from the shown one. */
+    private void onStateLoaded(StateLoadTask task, ViewInfoState state, boolean userCardChanged,
+            boolean tabsChanged) {
+        if (task != mPendingLoad) {
+            return;
+        }
+        mPendingLoad = null;
+        applyState(state, userCardChanged, tabsChanged);
+    }
 
-            mPersonalCardLargeIcon.setImageDrawable(drawableUserIcon);
+    /** Shows {@code state}, only updating the views that changed since the current state. */
+    private void applyState(ViewInfoState state, boolean userCardChanged, boolean tabsChanged) {
+        mState = state;
+        if (userCardChanged) {
+            if (TextUtils.isEmpty(state.getUserName())) {
+                mPersonalCard.setVisibility(View.GONE);
+            } else {
+                mPersonalCard.setVisibility(View.VISIBLE);
+                mPersonalCardLargeItem.setText(state.getUserName());
+                mPersonalCardLargeIcon.setImageDrawable(state.getUserIcon());
+            }
+        }
+        if (tabsChanged) {
+            // New info might have been added/deleted from the edit screen that could lead to
+            // adding/removing a fragment.
+            setupTabs(state);
+            maybeHideTabs();
+            mViewFlipper.setVisibility(View.VISIBLE);
         }
     }
 
@@ -190,30 +239,44 @@ public class ViewInfoActivity extends FragmentActivity {
         return mMenu;
     }
 
-    /** Return the fragments. */
+    /** Return the fragments, or null until the first state is loaded. */
     @VisibleForTesting
     public ArrayList<Pair<String, Fragment>> getFragments() {
         return mFragments;
     }
 
-    private ArrayList<Pair<String, Fragment>> setUpFragments() {
+    private ArrayList<Pair<String, Fragment>> setUpFragments(ViewInfoState state) {
         // Return only the fragments that have at least one piece of information set:
         ArrayList<Pair<String, Fragment>> fragments = new ArrayList<>(2);
+        mTabIds.clear();
 
-        if (PreferenceUtils.hasAtLeastOnePreferenceSet(this)) {
+        if (state.hasMedicalInfo()) {
             fragments.add(Pair.create(getResources().getString(R.string.tab_title_info),
-                    ViewEmergencyInfoFragment.newInstance()));
+                    getTabFragment(TAB_ID_MEDICAL_INFO)));
+            mTabIds.add(TAB_ID_MEDICAL_INFO);
         }
-        if (PreferenceUtils.hasAtLeastOneEmergencyContact(this)) {
+        if (state.hasEmergencyContacts()) {
             fragments.add(Pair.create(getResources().getString(R.string.tab_title_contacts),
-                    ViewEmergencyContactsFragment.newInstance()));
+                    getTabFragment(TAB_ID_EMERGENCY_CONTACTS)));
+            mTabIds.add(TAB_ID_EMERGENCY_CONTACTS);
         }
         return fragments;
     }
 
-    private void setupTabs() {
-        mFragments = setUpFragments();
-        mTabLayout = (TabLayout) findViewById(R.id.sliding_tabs);
+    /** Returns the fragment of the tab {@code tabId}, which is only created once. */
+    private Fragment getTabFragment(int tabId) {
+        Fragment fragment = mTabFragments.get(tabId);
+        if (fragment == null) {
+            fragment = tabId == TAB_ID_MEDICAL_INFO
+                    ? ViewEmergencyInfoFragment.newInstance()
+                    : ViewEmergencyContactsFragment.newInstance();
+            mTabFragments.put(tabId, fragment);
+        }
+        return fragment;
+    }
+
+    private void setupTabs(ViewInfoState state) {
+        mFragments = setUpFragments(state);
         if (mTabsAdapter == null) {
             // The viewpager that will host the section contents.
             ViewPager viewPager = (ViewPager) findViewById(R.id.view_pager);
@@ -235,8 +298,33 @@ public class ViewInfoActivity extends FragmentActivity {
         }
     }
 
+    /** Loads the state off the main thread, and compares it with the shown one. */
+    private class StateLoadTask implements Runnable {
+        @Nullable private final ViewInfoState mPreviousState;
+        private volatile boolean mCancelled;
+
+        StateLoadTask(@Nullable ViewInfoState previousState) {
+            mPreviousState = previousState;
+        }
+
+        @Override
+        public void run() {
+            if (mCancelled) {
+                return;
+            }
+            final ViewInfoState state = ViewInfoState.load(ViewInfoActivity.this);
+            final boolean userCardChanged = !state.hasSameUserCard(mPreviousState);
+            final boolean tabsChanged = !state.hasSameTabs(mPreviousState);
+            if (mCancelled || (!userCardChanged && !tabsChanged)) {
+                // Nothing to update, e.g. when coming back from the lock screen.
+                return;
+            }
+            mMainHandler.post(() -> onStateLoaded(this, state, userCardChanged, tabsChanged));
+        }
+    }
+
     /** The adapter used to handle the two fragments. */
-    protected class ViewPagerAdapter extends FragmentStatePagerAdapter {
+    protected class ViewPagerAdapter extends FragmentPagerAdapter {
         public ViewPagerAdapter(FragmentManager fm) {
             super(fm);
         }
@@ -256,11 +344,22 @@ public class ViewInfoActivity extends FragmentActivity {
             return mFragments.get(position).first;
         }
 
+        @Override
+        public long getItemId(int position) {
+            // Fragments are kept by id: a tab moving to another position keeps its fragment.
+            return mTabIds.get(position);
+        }
+
         @Override
         public int getItemPosition(Object object) {
             // The default implementation assumes that items will never change position and always
-            // returns POSITION_UNCHANGED. This is how you can specify that the positions can change
-            return FragmentStatePagerAdapter.POSITION_NONE;
+            // returns POSITION_UNCHANGED. Only the fragments of removed tabs need to be removed.
+            for (int i = 0; i < mFragments.size(); i++) {
+                if (mFragments.get(i).second == object) {
+                    return i;
+                }
+            }
+            return FragmentPagerAdapter.POSITION_NONE;
         }
     }
 }
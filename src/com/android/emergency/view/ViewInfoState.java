@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.view;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.text.TextUtils;
+import androidx.annotation.Nullable;
+
+import com.android.emergency.CircleFramedDrawable;
+import com.android.emergency.EmergencyInfoRepository;
+import com.android.emergency.R;
+import com.android.emergency.UserProfileCache;
+
+/**
+ * Immutable state of {@link ViewInfoActivity}: the personal card, and which tabs are shown. The
+ * content of the tabs is kept up to date by their fragments.
+ */
+final class ViewInfoState {
+    @Nullable private final String mUserName;
+    @Nullable private final CircleFramedDrawable mUserIcon;
+    private final boolean mHasMedicalInfo;
+    private final boolean mHasEmergencyContacts;
+
+    private ViewInfoState(@Nullable String userName, @Nullable CircleFramedDrawable userIcon,
+            boolean hasMedicalInfo, boolean hasEmergencyContacts) {
+        mUserName = userName;
+        mUserIcon = userIcon;
+        mHasMedicalInfo = hasMedicalInfo;
+        mHasEmergencyContacts = hasEmergencyContacts;
+    }
+
+    /**
+     * Loads the current state. Unless the user profile is cached, this makes binder calls and
+     * renders the user icon: avoid calling it on the main thread.
+     */
+    static ViewInfoState load(Context context) {
+        EmergencyInfoRepository.Snapshot emergencyInfo =
+                EmergencyInfoRepository.getInstance(context).getSnapshot();
+        UserProfileCache userProfileCache = UserProfileCache.getInstance(context);
+        String userName = userProfileCache.getUserName(context);
+        CircleFramedDrawable userIcon = TextUtils.isEmpty(userName) ? null
+                : userProfileCache.getUserIcon(context,
+                        (int) context.getResources().getDimension(R.dimen.action_bar_size));
+        return new ViewInfoState(userName, userIcon, emergencyInfo.hasAnyFieldSet(),
+                emergencyInfo.getEmergencyContactCount() > 0);
+    }
+
+    /** Returns the name of the user, or null or an empty string to hide the personal card. */
+    @Nullable
+    String getUserName() {
+        return mUserName;
+    }
+
+    /** Returns the framed icon of the user, or null if the personal card is hidden. */
+    @Nullable
+    CircleFramedDrawable getUserIcon() {
+        return mUserIcon;
+    }
+
+    /** Returns whether the medical info tab is shown. */
+    boolean hasMedicalInfo() {
+        return mHasMedicalInfo;
+    }
+
+    /** Returns whether the emergency contacts tab is shown. */
+    boolean hasEmergencyContacts() {
+        return mHasEmergencyContacts;
+    }
+
+    /** Returns whether {@code other} shows the same personal card. */
+    boolean hasSameUserCard(@Nullable ViewInfoState other) {
+        if (other == null || !TextUtils.equals(mUserName, other.mUserName)) {
+            return false;
+        }
+        if (mUserIcon == null || other.mUserIcon == null) {
+            return mUserIcon == other.mUserIcon;
+        }
+        // The avatar cache returns the same bitmap for the same icon, unless it was evicted.
+        Bitmap bitmap = mUserIcon.getBitmap();
+        Bitmap otherBitmap = other.mUserIcon.getBitmap();
+        return bitmap == otherBitmap || bitmap.sameAs(otherBitmap);
+    }
+
+    /** Returns whether {@code other} shows the same tabs. */
+    boolean hasSameTabs(@Nullable ViewInfoState other) {
+        return other != null && mHasMedicalInfo == other.mHasMedicalInfo
+                && mHasEmergencyContacts == other.mHasEmergencyContacts;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.widgets.countdown;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the count down rendering, drawing thousands of frames on an offscreen canvas at
+ * several surface sizes.
+ *
+ * <p>For each renderer and size, reports the mean time and the bytes allocated per frame, and the
+ * 50th, 95th and 99th percentiles of the frame times. Frames are drawn at fixed animation times,
+ * so that runs are reproducible.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CountDownRenderingBenchmarkTest {
+    private static final int[] SURFACE_SIZES = {320, 720, 1440};
+    private static final int WARM_UP_FRAME_COUNT = 500;
+    private static final int FRAME_COUNT = 5000;
+    private static final int FRAME_RATE = 60;
+    private static final long FRAME_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / FRAME_RATE;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void benchmarkLoopingAnimationThreadDrawFrame() {
+        for (int size : SURFACE_SIZES) {
+            Canvas canvas = new Canvas(Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888));
+            // The thread is never started: frames are drawn by the benchmark.
+            LoopingAnimationThread loopingAnimationThread =
+                    new LoopingAnimationThread(null /* surfaceHolder */, mContext,
+                            new CountDownFrameStats(mContext));
+            loopingAnimationThread.updateSize(size, size);
+            loopingAnimationThread.setCountDownLeft(Duration.ofSeconds(5));
+            loopingAnimationThread.showCountDown();
+
+            report("LoopingAnimationThread.drawFrame", size, measure(frame ->
+                    loopingAnimationThread.drawFrame(canvas, frame * FRAME_INTERVAL_NANOS)));
+        }
+    }
+
+    @Test
+    public void benchmarkCountDownRendererDraw() {
+        for (int size : SURFACE_SIZES) {
+            Canvas canvas = new Canvas(Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888));
+            CountDownRenderer countDownRenderer = new CountDownRenderer(mContext);
+            countDownRenderer.updateBounds(new RectF(0, 0, size, size), size);
+
+            // Count down from 9 to 0 once per second of animation, like the real timer.
+            report("CountDownRenderer.draw", size, measure(frame ->
+                    countDownRenderer.draw(canvas, 9 - frame / FRAME_RATE % 10)));
+        }
+    }
+
+    /** Draws warm up frames, then measures {@link #FRAME_COUNT} frames. */
+    private static FrameStats measure(FrameDrawer frameDrawer) {
+        for (int frame = 0; frame < WARM_UP_FRAME_COUNT; frame++) {
+            frameDrawer.drawFrame(frame);
+        }
+
+        long[] frameTimesNanos = new long[FRAME_COUNT];
+        long allocatedBytesBefore = getAllocatedBytes();
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            long frameStartNanos = System.nanoTime();
+            frameDrawer.drawFrame(WARM_UP_FRAME_COUNT + frame);
+            frameTimesNanos[frame] = System.nanoTime() - frameStartNanos;
+        }
+        long allocatedBytes = getAllocatedBytes() - allocatedBytesBefore;
+        return new FrameStats(frameTimesNanos, allocatedBytes);
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far, or 0 if the JVM can't tell. This
+     * includes allocations by the Robolectric shadows of the graphics classes.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static void report(String benchmark, int size, FrameStats frameStats) {
+        System.out.println(String.format(Locale.US,
+                "%s %dx%d: %d ns/frame, %d bytes/frame allocated, "
+                        + "p50 %d ns, p95 %d ns, p99 %d ns",
+                benchmark, size, size, frameStats.mMeanNanos, frameStats.mAllocatedBytesPerFrame,
+                frameStats.getPercentileNanos(50), frameStats.getPercentileNanos(95),
+                frameStats.getPercentileNanos(99)));
+    }
+
+    /** Draws one frame of a benchmark, without boxing the frame number. */
+    private interface FrameDrawer {
+        void drawFrame(int frame);
+    }
+
+    /** Statistics of the frames measured by a benchmark. */
+    private static final class FrameStats {
+        final long[] mSortedFrameTimesNanos;
+        final long mMeanNanos;
+        final long mAllocatedBytesPerFrame;
+
+        FrameStats(long[] frameTimesNanos, long allocatedBytes) {
+            long totalNanos = 0;
+            for (long frameTimeNanos : frameTimesNanos) {
+                totalNanos += frameTimeNanos;
+            }
+            mMeanNanos = totalNanos / frameTimesNanos.length;
+            mAllocatedBytesPerFrame = allocatedBytes / frameTimesNanos.length;
+            mSortedFrameTimesNanos = frameTimesNanos.clone();
+            Arrays.sort(mSortedFrameTimesNanos);
+        }
+
+        /** Returns the frame time below which {@code percentile}% of the frames were drawn. */
+        long getPercentileNanos(int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * mSortedFrameTimesNanos.length) - 1;
+            return mSortedFrameTimesNanos[Math.max(0, index)];
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit tests for {@link AvatarCache}. */
+@RunWith(RobolectricTestRunner.class)
+public class AvatarCacheTest {
+    private static final int SIZE = 48;
+    private static final int USER_ID = 10;
+    private static final long TIMESTAMP = 1000;
+
+    private File mDirectory;
+    private AvatarCache mCache;
+
+    @Before
+    public void setUp() {
+        mDirectory = new File(RuntimeEnvironment.application.getCacheDir(),
+                AvatarCache.DIRECTORY_NAME);
+        mCache = createCache();
+    }
+
+    @Test
+    public void testGetContactAvatar_sameSource_reusesAvatar() {
+        Bitmap photo = createBitmap(Color.RED);
+
+        Bitmap first = mCache.getContactAvatar(1, TIMESTAMP, photo, SIZE).getBitmap();
+        Bitmap second = mCache.getContactAvatar(1, TIMESTAMP, photo, SIZE).getBitmap();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getWidth()).isEqualTo(SIZE);
+    }
+
+    @Test
+    public void testGetContactAvatar_otherSize_createsAvatar() {
+        Bitmap photo = createBitmap(Color.RED);
+
+        Bitmap small = mCache.getContactAvatar(1, TIMESTAMP, photo, SIZE).getBitmap();
+        Bitmap large = mCache.getContactAvatar(1, TIMESTAMP, photo, 2 * SIZE).getBitmap();
+
+        assertThat(large).isNotSameAs(small);
+        assertThat(large.getWidth()).isEqualTo(2 * SIZE);
+    }
+
+    @Test
+    public void testGetContactAvatar_updatedContact_createsAvatar() {
+        Bitmap first = mCache.getContactAvatar(1, TIMESTAMP, createBitmap(Color.RED), SIZE)
+                .getBitmap();
+
+        Bitmap updated = mCache.getContactAvatar(1, TIMESTAMP + 1, createBitmap(Color.BLUE),
+                SIZE).getBitmap();
+
+        assertThat(updated).isNotSameAs(first);
+    }
+
+    @Test
+    public void testGetContactAvatar_writesAvatarToDisk() {
+        mCache.getContactAvatar(1, TIMESTAMP, createBitmap(Color.RED), SIZE);
+
+        assertThat(new File(mDirectory, "contact_1_" + TIMESTAMP + "_" + SIZE + ".png").exists())
+                .isTrue();
+    }
+
+    @Test
+    public void testGetContactAvatar_updatedContact_deletesPreviousFile() {
+        mCache.getContactAvatar(1, TIMESTAMP, createBitmap(Color.RED), SIZE);
+
+        mCache.getContactAvatar(1, TIMESTAMP + 1, createBitmap(Color.BLUE), SIZE);
+
+        assertThat(new File(mDirectory, "contact_1_" + TIMESTAMP + "_" + SIZE + ".png").exists())
+                .isFalse();
+        assertThat(new File(mDirectory, "contact_1_" + (TIMESTAMP + 1) + "_" + SIZE + ".png")
+                .exists()).isTrue();
+    }
+
+    @Test
+    public void testGetContactAvatar_tooManyFiles_deletesOldestFiles() {
+        for (int photoId = 0; photoId <= AvatarCache.MAX_DISK_FILES; photoId++) {
+            mCache.getContactAvatar(photoId, TIMESTAMP, createBitmap(Color.RED), SIZE);
+        }
+
+        assertThat(mDirectory.listFiles()).hasLength(AvatarCache.MAX_DISK_FILES);
+    }
+
+    @Test
+    public void testGetContactAvatar_newProcessOffMainThread_readsAvatarFromDisk()
+            throws Exception {
+        mCache.getContactAvatar(1, TIMESTAMP, createBitmap(Color.RED), SIZE);
+        AvatarCache newCache = createCache();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Without a photo to frame, this can only succeed from the disk.
+            Bitmap avatar = executor.submit(() -> newCache.getContactAvatar(
+                    1, TIMESTAMP, null /* photo */, SIZE).getBitmap()).get();
+
+            assertThat(avatar).isNotNull();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetUserAvatar_cached_doesNotLoadIcon() {
+        AtomicInteger loadCount = new AtomicInteger();
+
+        Bitmap first = mCache.getUserAvatar(USER_ID, () -> {
+            loadCount.incrementAndGet();
+            return createBitmap(Color.BLUE);
+        }, SIZE).getBitmap();
+        Bitmap second = mCache.getUserAvatar(USER_ID, () -> {
+            loadCount.incrementAndGet();
+            return createBitmap(Color.BLUE);
+        }, SIZE).getBitmap();
+
+        assertThat(second).isSameAs(first);
+        assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetUserAvatar_afterInvalidation_createsAvatar() {
+        Bitmap icon = createBitmap(Color.BLUE);
+        Bitmap first = mCache.getUserAvatar(USER_ID, () -> icon, SIZE).getBitmap();
+
+        mCache.invalidateUserAvatars(USER_ID);
+
+        assertThat(mCache.getUserAvatar(USER_ID, () -> icon, SIZE).getBitmap())
+                .isNotSameAs(first);
+    }
+
+    private AvatarCache createCache() {
+        // Disk writes run right away.
+        return new AvatarCache(mDirectory, Runnable::run);
+    }
+
+    private static Bitmap createBitmap(int color) {
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(color);
+        return bitmap;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.Context;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.provider.ContactsContract.CommonDataKinds.Phone;
+import android.provider.ContactsContract.DeletedContacts;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit tests for {@link ContactReconciler}. */
+@RunWith(RobolectricTestRunner.class)
+public class ContactReconcilerTest {
+    private static final long PHONE_ID_JANE = 1;
+    private static final long PHONE_ID_JOHN = 2;
+    private static final long CONTACT_ID_JANE = 10;
+    private static final long CONTACT_ID_JOHN = 20;
+
+    @Mock private Context mContext;
+    @Mock private ContentResolver mContentResolver;
+    private Uri mPhoneUriJane;
+    private Uri mPhoneUriJohn;
+    private List<Uri> mPhoneUris;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        when(mContext.getContentResolver()).thenReturn(mContentResolver);
+        when(mContext.getSharedPreferences(anyString(), anyInt())).thenReturn(
+                RuntimeEnvironment.application.getSharedPreferences(
+                        ContactReconciler.PREFS_NAME, Context.MODE_PRIVATE));
+        mPhoneUriJane = ContentUris.withAppendedId(Phone.CONTENT_URI, PHONE_ID_JANE);
+        mPhoneUriJohn = ContentUris.withAppendedId(Phone.CONTENT_URI, PHONE_ID_JOHN);
+        mPhoneUris = Arrays.asList(mPhoneUriJane, mPhoneUriJohn);
+    }
+
+    @After
+    public void tearDown() {
+        ContactReconciler.reset(RuntimeEnvironment.application);
+    }
+
+    @Test
+    public void testGetValidEmergencyContacts_firstCheck_queriesAllPhones() {
+        mockPhoneQuery(true /* janeExists */);
+
+        assertThat(ContactReconciler.getValidEmergencyContacts(mContext, mPhoneUris))
+                .containsExactly(mPhoneUriJane, mPhoneUriJohn).inOrder();
+        verify(mContentResolver).query(eq(Phone.CONTENT_URI), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetValidEmergencyContacts_unchangedContacts_skipsPhoneQuery() {
+        mockPhoneQuery(true /* janeExists */);
+        ContactReconciler.getValidEmergencyContacts(mContext, mPhoneUris);
+        mockChangedContacts(new long[0] /* deletedContactIds */);
+        mockPhoneQuery(false /* janeExists */);
+
+        assertThat(ContactReconciler.getValidEmergencyContacts(mContext, mPhoneUris))
+                .containsExactly(mPhoneUriJane, mPhoneUriJohn).inOrder();
+        // Only the first check queried the phone numbers.
+        verify(mContentResolver).query(eq(Phone.CONTENT_URI), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetValidEmergencyContacts_deletedContact_revalidatesIt() {
+        mockPhoneQuery(true /* janeExists */);
+        ContactReconciler.getValidEmergencyContacts(mContext, mPhoneUris);
+        mockChangedContacts(new long[]{CONTACT_ID_JANE} /* deletedContactIds */);
+        mockPhoneQuery(false /* janeExists */);
+
+        assertThat(ContactReconciler.getValidEmergencyContacts(mContext, mPhoneUris))
+                .containsExactly(mPhoneUriJohn);
+    }
+
+    @Test
+    public void testGetValidEmergencyContacts_noContacts_queriesNothing() {
+        assertThat(ContactReconciler.getValidEmergencyContacts(mContext, Collections.emptyList()))
+                .isEmpty();
+        verify(mContentResolver, never()).query(any(), any(), any(), any(), any());
+    }
+
+    private void mockPhoneQuery(boolean janeExists) {
+        MatrixCursor cursor = new MatrixCursor(new String[]{Phone._ID, Phone.CONTACT_ID});
+        if (janeExists) {
+            cursor.addRow(new Object[]{PHONE_ID_JANE, CONTACT_ID_JANE});
+        }
+        cursor.addRow(new Object[]{PHONE_ID_JOHN, CONTACT_ID_JOHN});
+        when(mContentResolver.query(eq(Phone.CONTENT_URI), any(), any(), any(), any()))
+                .thenReturn(cursor);
+    }
+
+    private void mockChangedContacts(long[] deletedContactIds) {
+        MatrixCursor deletedCursor = new MatrixCursor(new String[]{DeletedContacts.CONTACT_ID});
+        for (long contactId : deletedContactIds) {
+            deletedCursor.addRow(new Object[]{contactId});
+        }
+        when(mContentResolver.query(eq(DeletedContacts.CONTENT_URI), any(), any(), any(), any()))
+                .thenReturn(deletedCursor);
+        when(mContentResolver.query(
+                eq(ContactsContract.Contacts.CONTENT_URI), any(), any(), any(), any()))
+                .thenReturn(new MatrixCursor(new String[]{ContactsContract.Contacts._ID}));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.ContactsContract.CommonDataKinds.Phone;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit tests for {@link EmergencyContactCache}. */
+@RunWith(RobolectricTestRunner.class)
+public class EmergencyContactCacheTest {
+    private static final long PHONE_ID = 42;
+    private static final String NAME = "Jane";
+    private static final String PHONE_NUMBER = "5150";
+
+    @Mock private Context mContext;
+    @Mock private ContentResolver mContentResolver;
+    @Mock private Cursor mCursor;
+    private Uri mPhoneUri;
+    private EmergencyContactCache mCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        when(mContext.getContentResolver()).thenReturn(mContentResolver);
+        when(mContext.getResources()).thenReturn(RuntimeEnvironment.application.getResources());
+        when(mContentResolver.query(eq(Phone.CONTENT_URI), any(), any(), any(), any()))
+                .thenReturn(mCursor);
+        when(mCursor.getLong(0)).thenReturn(PHONE_ID);
+        when(mCursor.getString(3)).thenReturn(NAME);
+        when(mCursor.getString(4)).thenReturn(PHONE_NUMBER);
+        when(mCursor.getInt(5)).thenReturn(Phone.TYPE_MOBILE);
+
+        mPhoneUri = ContentUris.withAppendedId(Phone.CONTENT_URI, PHONE_ID);
+        mCache = new EmergencyContactCache(mContext);
+    }
+
+    @Test
+    public void testGetContacts_secondLookupServedFromMemory() {
+        when(mCursor.moveToNext()).thenReturn(true, false);
+        List<Uri> phoneUris = Collections.singletonList(mPhoneUri);
+
+        Map<Uri, EmergencyContactManager.Contact> first = mCache.getContacts(mContext, phoneUris);
+        Map<Uri, EmergencyContactManager.Contact> second = mCache.getContacts(mContext, phoneUris);
+
+        assertThat(first.get(mPhoneUri).getName()).isEqualTo(NAME);
+        assertThat(second.get(mPhoneUri)).isSameAs(first.get(mPhoneUri));
+        assertThat(mCache.getMissCount()).isEqualTo(1);
+        assertThat(mCache.getHitCount()).isEqualTo(1);
+        verify(mContentResolver, times(1))
+                .query(eq(Phone.CONTENT_URI), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testInvalidate_reloadsFromProvider() {
+        when(mCursor.moveToNext()).thenReturn(true, false, true, false);
+        List<Uri> phoneUris = Collections.singletonList(mPhoneUri);
+
+        mCache.getContacts(mContext, phoneUris);
+        mCache.invalidate();
+        mCache.getContacts(mContext, phoneUris);
+
+        assertThat(mCache.getMissCount()).isEqualTo(2);
+        verify(mContentResolver, times(2))
+                .query(eq(Phone.CONTENT_URI), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetContact_notFoundQueriesProviderOnce() {
+        when(mCursor.moveToNext()).thenReturn(false);
+
+        EmergencyContactManager.Contact contact = mCache.getContact(mContext, mPhoneUri);
+
+        assertThat(contact.getPhoneUri()).isEqualTo(mPhoneUri);
+        assertThat(contact.getName()).isNull();
+        verify(mContentResolver, times(1)).query(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetValidEmergencyContacts_cachedContactIsNotRevalidated() {
+        when(mCursor.moveToNext()).thenReturn(true, false);
+        List<Uri> phoneUris = Collections.singletonList(mPhoneUri);
+        mCache.getContacts(mContext, phoneUris);
+
+        assertThat(mCache.getValidEmergencyContacts(mContext, phoneUris))
+                .containsExactly(mPhoneUri);
+        verify(mContentResolver, times(1))
+                .query(eq(Phone.CONTENT_URI), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Unit tests for {@link EmergencyContactManager}. */
+@RunWith(RobolectricTestRunner.class)
+public class EmergencyContactManagerTest {
+
+    @Test
+    public void testComputeSampleSize_smallPhotoIsNotDownsampled() {
+        assertThat(EmergencyContactManager.computeSampleSize(96, 96, 120)).isEqualTo(1);
+        assertThat(EmergencyContactManager.computeSampleSize(120, 120, 120)).isEqualTo(1);
+    }
+
+    @Test
+    public void testComputeSampleSize_largePhotoKeepsAtLeastTargetSize() {
+        assertThat(EmergencyContactManager.computeSampleSize(720, 720, 120)).isEqualTo(4);
+        assertThat(EmergencyContactManager.computeSampleSize(1920, 1080, 120)).isEqualTo(8);
+        assertThat(EmergencyContactManager.computeSampleSize(960, 960, 120)).isEqualTo(8);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.net.Uri;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit tests for {@link EmergencyContactSnapshot}. */
+@RunWith(RobolectricTestRunner.class)
+public class EmergencyContactSnapshotTest {
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+    }
+
+    @After
+    public void tearDown() {
+        EmergencyContactSnapshot.deleteNow(mContext);
+    }
+
+    @Test
+    public void testRead_withoutSnapshot_returnsNoContacts() {
+        assertThat(EmergencyContactSnapshot.read(mContext)).isEmpty();
+    }
+
+    @Test
+    public void testRead_corruptAvatarLength_returnsNoContacts() throws IOException {
+        File file = new File(mContext.createDeviceProtectedStorageContext().getFilesDir(),
+                EmergencyContactSnapshot.FILE_NAME);
+        file.getParentFile().mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(EmergencyContactSnapshot.VERSION);
+            out.writeInt(1 /* count */);
+            // The phone uri, then no lookup uri, name, number or phone type.
+            out.writeBoolean(true);
+            out.writeUTF("content://com.android.contacts/data/phones/1");
+            for (int i = 0; i < 4; i++) {
+                out.writeBoolean(false);
+            }
+            out.writeLong(7 /* photoId */);
+            out.writeLong(1000 /* lastUpdatedTimestamp */);
+            // An avatar far larger than the rest of the file.
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeInt(0);
+        }
+
+        assertThat(EmergencyContactSnapshot.read(mContext)).isEmpty();
+    }
+
+    @Test
+    public void testWriteAndRead_preservesContactsAndOrder() {
+        Uri phoneUriJane = Uri.parse("content://com.android.contacts/data/phones/2");
+        Uri phoneUriJohn = Uri.parse("content://com.android.contacts/data/phones/1");
+        List<EmergencyContactManager.Contact> contacts = new ArrayList<>();
+        contacts.add(new EmergencyContactManager.Contact(
+                Uri.parse("content://com.android.contacts/contacts/lookup/jane/2"), phoneUriJane,
+                "Jane", "456", "Mobile", null /* photo */, 7));
+        contacts.add(new EmergencyContactManager.Contact(null /* contactLookupUri */,
+                phoneUriJohn, "John", "123", null /* phoneType */, null /* photo */));
+
+        EmergencyContactSnapshot.write(mContext, contacts);
+        Map<Uri, EmergencyContactManager.Contact> snapshot =
+                EmergencyContactSnapshot.read(mContext);
+
+        assertThat(snapshot.keySet()).containsExactly(phoneUriJane, phoneUriJohn).inOrder();
+        EmergencyContactManager.Contact jane = snapshot.get(phoneUriJane);
+        assertThat(jane.getContactLookupUri()).isEqualTo(contacts.get(0).getContactLookupUri());
+        assertThat(jane.getName()).isEqualTo("Jane");
+        assertThat(jane.getPhoneNumber()).isEqualTo("456");
+        assertThat(jane.getPhoneType()).isEqualTo("Mobile");
+        assertThat(jane.getPhotoId()).isEqualTo(7);
+        EmergencyContactManager.Contact john = snapshot.get(phoneUriJohn);
+        assertThat(john.getContactLookupUri()).isNull();
+        assertThat(john.getPhoneType()).isNull();
+        assertThat(john.getPhoto()).isNull();
+    }
+
+    @Test
+    public void testDeleteNow_removesSnapshot() {
+        List<EmergencyContactManager.Contact> contacts = new ArrayList<>();
+        contacts.add(new EmergencyContactManager.Contact(null /* contactLookupUri */,
+                Uri.parse("content://com.android.contacts/data/phones/1"), "John", "123",
+                null /* phoneType */, null /* photo */));
+        EmergencyContactSnapshot.write(mContext, contacts);
+
+        EmergencyContactSnapshot.deleteNow(mContext);
+
+        assertThat(EmergencyContactSnapshot.read(mContext)).isEmpty();
+    }
+
+    @Test
+    public void testWriteAndRead_storesFramedAvatar() {
+        Bitmap photo = Bitmap.createBitmap(400, 300, Bitmap.Config.ARGB_8888);
+        photo.eraseColor(Color.RED);
+        Uri phoneUri = Uri.parse("content://com.android.contacts/data/phones/1");
+        List<EmergencyContactManager.Contact> contacts = new ArrayList<>();
+        contacts.add(new EmergencyContactManager.Contact(null /* contactLookupUri */, phoneUri,
+                "John", "123", null /* phoneType */, photo, 7, 1000));
+
+        EmergencyContactSnapshot.write(mContext, contacts);
+        EmergencyContactManager.Contact john =
+                EmergencyContactSnapshot.read(mContext).get(phoneUri);
+
+        int avatarSize = (int) mContext.getResources().getDimension(R.dimen.circle_avatar_size);
+        assertThat(john.getPhoto().getWidth()).isEqualTo(avatarSize);
+        assertThat(john.getPhoto().getHeight()).isEqualTo(avatarSize);
+        assertThat(john.getLastUpdatedTimestamp()).isEqualTo(1000);
+    }
+
+    @Test
+    public void testWrite_unchangedContacts_skipsWrite() {
+        List<EmergencyContactManager.Contact> contacts = new ArrayList<>();
+        contacts.add(new EmergencyContactManager.Contact(null /* contactLookupUri */,
+                Uri.parse("content://com.android.contacts/data/phones/1"), "John", "123",
+                null /* phoneType */, null /* photo */));
+        EmergencyContactSnapshot.write(mContext, contacts);
+        new File(mContext.createDeviceProtectedStorageContext().getFilesDir(),
+                EmergencyContactSnapshot.FILE_NAME).delete();
+
+        EmergencyContactSnapshot.write(mContext, new ArrayList<>(contacts));
+
+        assertThat(EmergencyContactSnapshot.read(mContext)).isEmpty();
+    }
+}
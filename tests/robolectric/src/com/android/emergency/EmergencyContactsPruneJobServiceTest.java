@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.job.JobScheduler;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Looper;
+import androidx.preference.PreferenceManager;
+
+import com.android.emergency.preferences.EmergencyContactsPreference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+
+/** Unit tests for {@link EmergencyContactsPruneJobService}. */
+@RunWith(RobolectricTestRunner.class)
+public class EmergencyContactsPruneJobServiceTest {
+    private Context mContext;
+    private SharedPreferences mSharedPreferences;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mSharedPreferences = PreferenceManager.getDefaultSharedPreferences(mContext);
+    }
+
+    @After
+    public void tearDown() {
+        mSharedPreferences.edit().clear().commit();
+        ContactReconciler.reset(mContext);
+        getJobScheduler().cancelAll();
+    }
+
+    @Test
+    public void testFindDeletedEmergencyContacts_noContacts_findsNothing() {
+        assertThat(EmergencyContactsPruneJobService.findDeletedEmergencyContacts(mContext))
+                .isEmpty();
+    }
+
+    @Test
+    public void testRemoveDeletedEmergencyContacts_deletedContacts_rewritesStoredContacts() {
+        mSharedPreferences.edit()
+                .putString(PreferenceKeys.KEY_EMERGENCY_CONTACTS,
+                        "content://com.android.contacts/data/phones/1|tel:123")
+                .commit();
+
+        List<Uri> deletedContacts =
+                EmergencyContactsPruneJobService.findDeletedEmergencyContacts(mContext);
+        EmergencyContactsPruneJobService.removeDeletedEmergencyContacts(mContext,
+                deletedContacts);
+
+        assertThat(deletedContacts).hasSize(2);
+        assertThat(mSharedPreferences.getString(PreferenceKeys.KEY_EMERGENCY_CONTACTS, null))
+                .isEmpty();
+    }
+
+    @Test
+    public void testScheduleIfContactsStored_noContacts_doesNotSchedule() {
+        EmergencyContactsPruneJobService.scheduleIfContactsStored(mContext);
+
+        assertThat(getJobScheduler().getPendingJob(
+                EmergencyContactsPruneJobService.JOB_ID_CONTACTS_CHANGED)).isNull();
+    }
+
+    @Test
+    public void testScheduleIfContactsStored_contactsStored_schedules() {
+        mSharedPreferences.edit()
+                .putString(PreferenceKeys.KEY_EMERGENCY_CONTACTS,
+                        EmergencyContactsPreference.serialize(Collections.singletonList(
+                                Uri.parse("content://com.android.contacts/data/phones/1"))))
+                .commit();
+
+        EmergencyContactsPruneJobService.scheduleIfContactsStored(mContext);
+
+        assertThat(getJobScheduler().getPendingJob(
+                EmergencyContactsPruneJobService.JOB_ID_CONTACTS_CHANGED)).isNotNull();
+    }
+
+    @Test
+    public void testCancel_stopsWatchingContacts() {
+        EmergencyContactsPruneJobService.schedule(mContext);
+
+        EmergencyContactsPruneJobService.cancel(mContext);
+
+        assertThat(getJobScheduler().getPendingJob(
+                EmergencyContactsPruneJobService.JOB_ID_CONTACTS_CHANGED)).isNull();
+    }
+
+    @Test
+    public void testRemoveStoredEmergencyContacts_keepsContactsAddedMeanwhile() {
+        Uri deletedPhoneUri = Uri.parse("content://com.android.contacts/data/phones/1");
+        Uri addedPhoneUri = Uri.parse("content://com.android.contacts/data/phones/2");
+        List<Uri> emergencyContacts = new ArrayList<>();
+        emergencyContacts.add(deletedPhoneUri);
+        emergencyContacts.add(addedPhoneUri);
+        // The contact was added after the deleted one was found.
+        mSharedPreferences.edit()
+                .putString(PreferenceKeys.KEY_EMERGENCY_CONTACTS,
+                        EmergencyContactsPreference.serialize(emergencyContacts))
+                .commit();
+
+        EmergencyContactsPreference.removeStoredEmergencyContacts(mContext,
+                PreferenceKeys.KEY_EMERGENCY_CONTACTS, Collections.singletonList(deletedPhoneUri));
+
+        assertThat(EmergencyContactsPreference.deserialize(
+                mSharedPreferences.getString(PreferenceKeys.KEY_EMERGENCY_CONTACTS, null)))
+                .containsExactly(addedPhoneUri);
+    }
+
+    @Test
+    public void testRemoveStoredEmergencyContacts_offMainThread_doesNotWaitForMainThread()
+            throws Exception {
+        Uri deletedPhoneUri = Uri.parse("content://com.android.contacts/data/phones/1");
+        mSharedPreferences.edit()
+                .putString(PreferenceKeys.KEY_EMERGENCY_CONTACTS,
+                        EmergencyContactsPreference.serialize(
+                                Collections.singletonList(deletedPhoneUri)))
+                .commit();
+
+        // The main thread is busy running this test: waiting for it would never return.
+        Thread thread = new Thread(() -> EmergencyContactsPreference.removeStoredEmergencyContacts(
+                mContext, PreferenceKeys.KEY_EMERGENCY_CONTACTS,
+                Collections.singletonList(deletedPhoneUri)));
+        thread.start();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(thread.isAlive()).isFalse();
+
+        Shadows.shadowOf(Looper.getMainLooper()).idle();
+        assertThat(EmergencyContactsPreference.deserialize(
+                mSharedPreferences.getString(PreferenceKeys.KEY_EMERGENCY_CONTACTS, null)))
+                .isEmpty();
+    }
+
+    private JobScheduler getJobScheduler() {
+        return mContext.getSystemService(JobScheduler.class);
+    }
+}
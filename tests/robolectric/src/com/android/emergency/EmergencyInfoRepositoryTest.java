@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ContentUris;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.provider.ContactsContract.CommonDataKinds.Phone;
+import androidx.preference.PreferenceManager;
+
+import com.android.emergency.preferences.EmergencyContactsPreference;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit tests for {@link EmergencyInfoRepository}. */
+@RunWith(RobolectricTestRunner.class)
+public class EmergencyInfoRepositoryTest {
+    private Context mContext;
+    private SharedPreferences mSharedPreferences;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mSharedPreferences = PreferenceManager.getDefaultSharedPreferences(mContext);
+    }
+
+    @After
+    public void tearDown() {
+        mSharedPreferences.edit().clear().commit();
+    }
+
+    @Test
+    public void testGetSnapshot_nothingSet() {
+        EmergencyInfoRepository.Snapshot emergencyInfo =
+                EmergencyInfoRepository.getInstance(mContext).getSnapshot();
+
+        assertThat(emergencyInfo.hasAnyFieldSet()).isFalse();
+        assertThat(emergencyInfo.getField(PreferenceKeys.KEY_ALLERGIES)).isEmpty();
+        assertThat(emergencyInfo.getEmergencyContactCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testGetSnapshot_updatedWhenPreferencesChange() {
+        EmergencyInfoRepository repository = EmergencyInfoRepository.getInstance(mContext);
+        EmergencyInfoRepository.Snapshot previousEmergencyInfo = repository.getSnapshot();
+        Uri phoneUri = ContentUris.withAppendedId(Phone.CONTENT_URI, 1);
+
+        mSharedPreferences.edit()
+                .putString(PreferenceKeys.KEY_ALLERGIES, "peanuts")
+                .putString(PreferenceKeys.KEY_EMERGENCY_CONTACTS,
+                        EmergencyContactsPreference.serialize(Arrays.asList(phoneUri)))
+                .commit();
+
+        EmergencyInfoRepository.Snapshot emergencyInfo = repository.getSnapshot();
+        assertThat(emergencyInfo.hasAnyFieldSet()).isTrue();
+        assertThat(emergencyInfo.getField(PreferenceKeys.KEY_ALLERGIES)).isEqualTo("peanuts");
+        assertThat(emergencyInfo.getEmergencyContacts()).containsExactly(phoneUri);
+        // Snapshots are immutable.
+        assertThat(previousEmergencyInfo.hasAnyFieldSet()).isFalse();
+        assertThat(previousEmergencyInfo.getEmergencyContactCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testGetSnapshot_updatedWhenFieldRemoved() {
+        mSharedPreferences.edit().putString(PreferenceKeys.KEY_ALLERGIES, "peanuts").commit();
+        EmergencyInfoRepository repository = EmergencyInfoRepository.getInstance(mContext);
+
+        mSharedPreferences.edit().remove(PreferenceKeys.KEY_ALLERGIES).commit();
+
+        assertThat(repository.getSnapshot().hasAnyFieldSet()).isFalse();
+    }
+}
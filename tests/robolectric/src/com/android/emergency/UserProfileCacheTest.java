@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.os.UserHandle;
+import android.os.UserManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Unit tests for {@link UserProfileCache}. */
+@RunWith(RobolectricTestRunner.class)
+public class UserProfileCacheTest {
+    private static final int SIZE = 48;
+
+    @Mock private UserManager mUserManager;
+    private Context mContext;
+    private UserProfileCache mUserProfileCache;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = spy(RuntimeEnvironment.application);
+        when(mContext.getSystemService(UserManager.class)).thenReturn(mUserManager);
+        when(mUserManager.getUserName()).thenReturn("Jane");
+        when(mUserManager.getUserIcon(anyInt())).thenReturn(
+                Bitmap.createBitmap(96, 96, Bitmap.Config.ARGB_8888));
+        // Avatars are shared by the whole process.
+        AvatarCache.getInstance(mContext).invalidateUserAvatars(UserHandle.myUserId());
+        mUserProfileCache = new UserProfileCache(RuntimeEnvironment.application);
+    }
+
+    @Test
+    public void testGetUserName_cached() {
+        assertThat(mUserProfileCache.getUserName(mContext)).isEqualTo("Jane");
+        assertThat(mUserProfileCache.getUserName(mContext)).isEqualTo("Jane");
+
+        verify(mUserManager, times(1)).getUserName();
+    }
+
+    @Test
+    public void testGetUserIcon_reusesFramedBitmap() {
+        CircleFramedDrawable userIcon = mUserProfileCache.getUserIcon(mContext, SIZE);
+
+        assertThat(mUserProfileCache.getUserIcon(mContext, SIZE).getBitmap())
+                .isSameAs(userIcon.getBitmap());
+        verify(mUserManager, times(1)).getUserIcon(anyInt());
+    }
+
+    @Test
+    public void testUserInfoChanged_invalidatesCache() {
+        mUserProfileCache.getUserName(mContext);
+        when(mUserManager.getUserName()).thenReturn("John");
+
+        RuntimeEnvironment.application.sendBroadcast(new Intent(Intent.ACTION_USER_INFO_CHANGED));
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mUserProfileCache.getUserName(mContext)).isEqualTo("John");
+    }
+}
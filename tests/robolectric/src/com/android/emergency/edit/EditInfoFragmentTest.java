@@ -14,6 +14,7 @@ import android.content.pm.PackageManager;
 import androidx.preference.Preference;
 import androidx.preference.Preference.OnPreferenceChangeListener;
 import com.android.emergency.edit.EditInfoFragment.PreferenceChangeListener;
+import com.android.emergency.util.SettingsSuggestionTracker;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,6 +35,7 @@ public class EditInfoFragmentTest {
         MockitoAnnotations.initMocks(this);
         mContext = spy(RuntimeEnvironment.application);
         doReturn(mPackageManager).when(mContext).getPackageManager();
+        SettingsSuggestionTracker.resetForTesting(Runnable::run);
     }
 
     @Test
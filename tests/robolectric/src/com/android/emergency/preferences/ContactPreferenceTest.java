@@ -17,6 +17,8 @@ package com.android.emergency.preferences;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import android.app.Activity;
@@ -26,6 +28,10 @@ import android.content.Intent;
 import android.net.Uri;
 import com.android.emergency.ContactTestUtils;
 import com.android.emergency.EmergencyContactManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -62,7 +68,7 @@ public class ContactPreferenceTest {
         when(mContact.getContactLookupUri()).thenReturn(mPhoneUri);
 
         final Activity activity = Robolectric.setupActivity(Activity.class);
-        mPreference = new ContactPreference(activity, mPhoneUri, mContactFactory);
+        mPreference = new ContactPreference(activity, mPhoneUri, mContactFactory, Runnable::run);
     }
 
     @Test
@@ -88,4 +94,61 @@ public class ContactPreferenceTest {
         final Intent actual = Shadows.shadowOf(application).getNextStartedActivity();
         assertThat(actual.filterEquals(expected)).isTrue();
     }
+
+    @Test
+    public void testSetPhoneUri_showsPlaceholderUntilLoaded() {
+        final List<Runnable> pendingLoads = new ArrayList<>();
+        final ContactPreference preference = new ContactPreference(
+                Robolectric.setupActivity(Activity.class), mPhoneUri, mContactFactory,
+                pendingLoads::add);
+
+        assertThat(preference.getPhoneUri()).isEqualTo(mPhoneUri);
+        assertThat(preference.getContact()).isNull();
+        assertThat(preference.getTitle()).isNull();
+
+        assertThat(pendingLoads).hasSize(1);
+        pendingLoads.get(0).run();
+
+        assertThat(preference.getContact()).isSameAs(mContact);
+        assertThat(preference.getTitle()).isEqualTo(NAME);
+    }
+
+    @Test
+    public void testSetPhoneUri_cancelsPreviousLoad() {
+        final List<Runnable> pendingLoads = new ArrayList<>();
+        final ContactPreference preference = new ContactPreference(
+                Robolectric.setupActivity(Activity.class), mPhoneUri, mContactFactory,
+                pendingLoads::add);
+        final Uri otherPhoneUri = Uri.parse("tel:987");
+        final EmergencyContactManager.Contact otherContact =
+                mock(EmergencyContactManager.Contact.class);
+        when(otherContact.getPhoneUri()).thenReturn(otherPhoneUri);
+        when(mContactFactory.getContact(any(), eq(otherPhoneUri)))
+                .thenReturn(otherContact);
+
+        preference.setPhoneUri(otherPhoneUri);
+        pendingLoads.get(0).run();
+        assertThat(preference.getContact()).isNull();
+
+        pendingLoads.get(1).run();
+        assertThat(preference.getContact()).isSameAs(otherContact);
+    }
+
+    @Test
+    public void testOnAttached_resumesIconRenderCancelledOnDetach() {
+        final List<Runnable> pendingLoads = new ArrayList<>();
+        final ContactPreference preference = new ContactPreference(
+                Robolectric.setupActivity(Activity.class), mContact, mContactFactory,
+                pendingLoads::add);
+        assertThat(pendingLoads).hasSize(1);
+
+        // Detached before the icon was rendered: the render is cancelled.
+        preference.onDetached();
+        pendingLoads.get(0).run();
+        preference.onAttached();
+
+        assertThat(pendingLoads).hasSize(2);
+        pendingLoads.get(1).run();
+        assertThat(preference.getContact()).isSameAs(mContact);
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.preferences;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ContentUris;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.provider.ContactsContract;
+import android.provider.ContactsContract.CommonDataKinds.Phone;
+import android.util.Base64;
+
+import com.android.emergency.PreferenceKeys;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/** Unit tests for {@link EmergencyContactsCodec}. */
+@RunWith(RobolectricTestRunner.class)
+public class EmergencyContactsCodecTest {
+    private static final String PREFS_NAME = "EmergencyContactsCodecTest";
+
+    @After
+    public void tearDown() {
+        getSharedPreferences().edit().clear().commit();
+    }
+
+    @Test
+    public void testEncodeAndDecode_preservesUrisAndOrder() {
+        List<Uri> emergencyContacts = Arrays.asList(
+                ContentUris.withAppendedId(Phone.CONTENT_URI, 12345678901L),
+                Uri.parse("tel:123"),
+                ContentUris.withAppendedId(ContactsContract.Data.CONTENT_URI, 7),
+                ContentUris.withAppendedId(Phone.CONTENT_URI, 1),
+                Uri.parse("content://com.android.contacts/data/phones/007"));
+
+        String value = EmergencyContactsCodec.encode(emergencyContacts);
+
+        assertThat(value).startsWith(EmergencyContactsCodec.PREFIX);
+        assertThat(EmergencyContactsCodec.decode(value))
+                .containsExactlyElementsIn(emergencyContacts).inOrder();
+    }
+
+    @Test
+    public void testEncode_noContacts_returnsEmptyString() {
+        assertThat(EmergencyContactsCodec.encode(Collections.emptyList())).isEmpty();
+        assertThat(EmergencyContactsCodec.decode("")).isEmpty();
+    }
+
+    @Test
+    public void testDecode_legacyFormat() {
+        Uri phoneUri = ContentUris.withAppendedId(Phone.CONTENT_URI, 1);
+
+        assertThat(EmergencyContactsCodec.decode(phoneUri + "|tel:123"))
+                .containsExactly(phoneUri, Uri.parse("tel:123")).inOrder();
+        assertThat(EmergencyContactsCodec.isCurrentFormat(phoneUri.toString())).isFalse();
+    }
+
+    @Test
+    public void testDecode_malformedValue_returnsNoContacts() {
+        assertThat(EmergencyContactsCodec.decode(EmergencyContactsCodec.PREFIX + "AQ"))
+                .isEmpty();
+    }
+
+    @Test
+    public void testDecode_corruptCount_returnsNoContacts() {
+        // A count of 2^32 - 1, negative once cast to an int.
+        byte[] negativeCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0};
+        // A count of 2^31 - 1, far more than the bytes that follow.
+        byte[] hugeCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0};
+
+        assertThat(EmergencyContactsCodec.decode(encodeBytes(negativeCount))).isEmpty();
+        assertThat(EmergencyContactsCodec.decode(encodeBytes(hugeCount))).isEmpty();
+    }
+
+    @Test
+    public void testDecode_corruptStringLength_returnsNoContacts() {
+        // One string contact, then a string table of one string longer than the value.
+        byte[] value = {1, 2, 0, 1, (byte) 0xFF, (byte) 0xFF, 0x03, 'a'};
+
+        assertThat(EmergencyContactsCodec.decode(encodeBytes(value))).isEmpty();
+    }
+
+    @Test
+    public void testGetStoredEmergencyContacts_migratesLegacyString() {
+        Uri phoneUri = ContentUris.withAppendedId(Phone.CONTENT_URI, 1);
+        getSharedPreferences().edit()
+                .putString(PreferenceKeys.KEY_EMERGENCY_CONTACTS, phoneUri.toString())
+                .commit();
+
+        String value = EmergencyContactsPreference.getStoredEmergencyContacts(
+                RuntimeEnvironment.application, getSharedPreferences(),
+                PreferenceKeys.KEY_EMERGENCY_CONTACTS, "");
+
+        assertThat(EmergencyContactsCodec.decode(value)).containsExactly(phoneUri);
+        assertThat(getSharedPreferences().getString(PreferenceKeys.KEY_EMERGENCY_CONTACTS, null))
+                .isEqualTo(value);
+    }
+
+    @Test
+    public void testGetStoredEmergencyContacts_migratesLegacyStringSet() {
+        Uri phoneUri = ContentUris.withAppendedId(Phone.CONTENT_URI, 1);
+        getSharedPreferences().edit()
+                .putStringSet(PreferenceKeys.KEY_EMERGENCY_CONTACTS,
+                        new HashSet<>(Arrays.asList(phoneUri.toString())))
+                .commit();
+
+        String value = EmergencyContactsPreference.getStoredEmergencyContacts(
+                RuntimeEnvironment.application, getSharedPreferences(),
+                PreferenceKeys.KEY_EMERGENCY_CONTACTS, "");
+
+        assertThat(EmergencyContactsCodec.decode(value)).containsExactly(phoneUri);
+        assertThat(getSharedPreferences().getString(PreferenceKeys.KEY_EMERGENCY_CONTACTS, null))
+                .isEqualTo(value);
+    }
+
+    private static String encodeBytes(byte[] value) {
+        return EmergencyContactsCodec.PREFIX
+                + Base64.encodeToString(value, Base64.NO_WRAP | Base64.NO_PADDING);
+    }
+
+    private static SharedPreferences getSharedPreferences() {
+        return RuntimeEnvironment.application.getSharedPreferences(PREFS_NAME,
+                Context.MODE_PRIVATE);
+    }
+}
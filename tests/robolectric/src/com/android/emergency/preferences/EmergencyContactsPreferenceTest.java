@@ -22,7 +22,10 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import android.content.ContextWrapper;
@@ -38,7 +41,9 @@ import com.android.emergency.EmergencyContactManager;
 import com.android.emergency.PreferenceKeys;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -69,7 +74,7 @@ public class EmergencyContactsPreferenceTest {
         doReturn(mPackageManager).when(mContext).getPackageManager();
 
         mPreference = spy(new EmergencyContactsPreference(RuntimeEnvironment.application,
-                    null /* attrs */, mContactValidator, mContactFactory));
+                    null /* attrs */, mContactValidator, mContactFactory, Runnable::run));
 
         PreferenceGroup prefRoot = spy(new PreferenceScreen(mContext, null /* attrs */));
         when(prefRoot.getPreferenceManager()).thenReturn(mPreferenceManager);
@@ -162,4 +167,91 @@ public class EmergencyContactsPreferenceTest {
         ContactPreference contactPreference = (ContactPreference) mPreference.getPreference(0);
         assertThat(contactPreference.getPhoneUri()).isEqualTo(contactUriJohn);
     }
+
+    @Test
+    public void testReloadFromPreference_bulkFactoryTrustsStoredContacts() throws Throwable {
+        ContactPreference.BulkContactFactory contactFactory =
+                mock(ContactPreference.BulkContactFactory.class);
+        mPreference = spy(new EmergencyContactsPreference(RuntimeEnvironment.application,
+                    null /* attrs */, mContactValidator, contactFactory, Runnable::run));
+        PreferenceGroup prefRoot = spy(new PreferenceScreen(mContext, null /* attrs */));
+        when(prefRoot.getPreferenceManager()).thenReturn(mPreferenceManager);
+        prefRoot.addPreference(mPreference);
+
+        final String nameJohn = "John";
+        final String phoneNumberJohn = "123";
+        Uri contactUriJane = Uri.parse("tel:456");
+        Uri contactUriJohn = Uri.parse("tel:" + phoneNumberJohn);
+        EmergencyContactManager.Contact contactJohn = mock(EmergencyContactManager.Contact.class);
+        when(contactJohn.getName()).thenReturn(nameJohn);
+        when(contactJohn.getPhoneNumber()).thenReturn(phoneNumberJohn);
+        when(contactJohn.getPhoneUri()).thenReturn(contactUriJohn);
+
+        final List<Uri> emergencyContacts = new ArrayList<>();
+        emergencyContacts.add(contactUriJane);
+        emergencyContacts.add(contactUriJohn);
+        // Only John can be resolved: Jane has been deleted.
+        Map<Uri, EmergencyContactManager.Contact> contacts = new LinkedHashMap<>();
+        contacts.put(contactUriJohn, contactJohn);
+        when(contactFactory.getContacts(any(), eq(emergencyContacts))).thenReturn(contacts);
+
+        mPreference.setKey(PreferenceKeys.KEY_EMERGENCY_CONTACTS);
+        when(mSharedPreferences.getString(eq(mPreference.getKey()), any()))
+                .thenReturn(mPreference.serialize(emergencyContacts));
+        doNothing().when(mPreference).persistEmergencyContacts(any());
+        mPreference.reloadFromPreference();
+
+        // Jane is not displayed, but stays stored until the prune job removes her.
+        assertThat(mPreference.getEmergencyContacts())
+                .containsExactly(contactUriJane, contactUriJohn).inOrder();
+        assertThat(mPreference.getPreferenceCount()).isEqualTo(1);
+        ContactPreference contactPreference = (ContactPreference) mPreference.getPreference(0);
+        assertThat(contactPreference.getPhoneUri()).isEqualTo(contactUriJohn);
+        assertThat(contactPreference.getTitle()).isEqualTo(nameJohn);
+        // The contacts were resolved by a single lookup, without validating them.
+        verify(contactFactory).getContacts(any(), any());
+        verify(contactFactory, never()).getContact(any(), any());
+        verifyZeroInteractions(mContactValidator);
+    }
+
+    @Test
+    public void testSetEmergencyContacts_bulkFactoryResolvesContactsInBackground() {
+        ContactPreference.BulkContactFactory contactFactory =
+                mock(ContactPreference.BulkContactFactory.class);
+        final List<Runnable> pendingLoads = new ArrayList<>();
+        mPreference = spy(new EmergencyContactsPreference(RuntimeEnvironment.application,
+                    null /* attrs */, mContactValidator, contactFactory, pendingLoads::add));
+        PreferenceGroup prefRoot = spy(new PreferenceScreen(mContext, null /* attrs */));
+        when(prefRoot.getPreferenceManager()).thenReturn(mPreferenceManager);
+        prefRoot.addPreference(mPreference);
+        doNothing().when(mPreference).persistEmergencyContacts(any());
+
+        final String nameJohn = "John";
+        Uri contactUriJohn = Uri.parse("tel:123");
+        EmergencyContactManager.Contact contactJohn = mock(EmergencyContactManager.Contact.class);
+        when(contactJohn.getName()).thenReturn(nameJohn);
+        when(contactJohn.getPhoneNumber()).thenReturn("123");
+        when(contactJohn.getPhoneUri()).thenReturn(contactUriJohn);
+        final List<Uri> emergencyContacts = new ArrayList<>();
+        emergencyContacts.add(contactUriJohn);
+        Map<Uri, EmergencyContactManager.Contact> contacts = new LinkedHashMap<>();
+        contacts.put(contactUriJohn, contactJohn);
+        when(contactFactory.getContacts(any(), eq(emergencyContacts))).thenReturn(contacts);
+
+        mPreference.setEmergencyContacts(emergencyContacts);
+
+        // A placeholder is displayed, and nothing is resolved on the calling thread.
+        assertThat(mPreference.getPreferenceCount()).isEqualTo(1);
+        ContactPreference contactPreference = (ContactPreference) mPreference.getPreference(0);
+        assertThat(contactPreference.getPhoneUri()).isEqualTo(contactUriJohn);
+        assertThat(contactPreference.getTitle()).isNull();
+        verify(contactFactory, never()).getContacts(any(), any());
+
+        pendingLoads.get(0).run();
+
+        assertThat(mPreference.getPreferenceCount()).isEqualTo(1);
+        assertThat(mPreference.getPreference(0)).isSameAs(contactPreference);
+        assertThat(contactPreference.getTitle()).isEqualTo(nameJohn);
+        verify(contactFactory, never()).getContact(any(), any());
+    }
 }
@@ -37,6 +37,7 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import com.android.emergency.R;
+import com.android.emergency.UserProfileCache;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -65,6 +66,8 @@ public class EmergencyNamePreferenceTest {
         mContext = spy(RuntimeEnvironment.application);
         when(mContext.getSystemService(UserManager.class)).thenReturn(mUserManager);
         when(mUserManager.getUserIcon(0)).thenReturn(mBitmap);
+        // Do not reuse the user profile of another test.
+        UserProfileCache.getInstance(mContext).invalidate();
 
         mTestEmergencyNamePreference = spy(new TestEmergencyNamePreference(mContext));
     }
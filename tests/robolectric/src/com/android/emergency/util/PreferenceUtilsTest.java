@@ -20,6 +20,7 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,7 +29,6 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.database.Cursor;
 import android.net.Uri;
 
 import com.android.emergency.ContactTestUtils;
@@ -51,7 +51,6 @@ public final class PreferenceUtilsTest {
 
     @Mock ContentResolver mContentResolver;
     @Mock Context mContext;
-    @Mock Cursor mCursor;
     @Mock PackageManager mPackageManager;
     @Mock SharedPreferences mSharedPreferences;
     @Mock SharedPreferences.Editor mSharedPreferencesEditor;
@@ -73,6 +72,7 @@ public final class PreferenceUtilsTest {
         when(mSharedPreferences.edit()).thenReturn(mSharedPreferencesEditor);
         when(mSharedPreferencesEditor.putString(anyString(), anyString()))
                 .thenReturn(mSharedPreferencesEditor);
+        SettingsSuggestionTracker.resetForTesting(Runnable::run);
     }
 
     @Test
@@ -103,9 +103,6 @@ public final class PreferenceUtilsTest {
                 RuntimeEnvironment.application.getContentResolver(), NAME, PHONE_NUMBER);
         when(mSharedPreferences.getString(eq(PreferenceKeys.KEY_EMERGENCY_CONTACTS), any()))
                 .thenReturn(contactUri.toString());
-        when(mContentResolver.query(eq(contactUri), any(), any(), any(), any()))
-                .thenReturn(mCursor);
-        when(mCursor.moveToFirst()).thenReturn(true);
 
         assertThat(PreferenceUtils.hasAtLeastOneEmergencyContact(mContext)).isTrue();
     }
@@ -126,9 +123,6 @@ public final class PreferenceUtilsTest {
                 RuntimeEnvironment.application.getContentResolver(), NAME, PHONE_NUMBER);
         when(mSharedPreferences.getString(eq(PreferenceKeys.KEY_EMERGENCY_CONTACTS), any()))
                 .thenReturn(contactUri.toString());
-        when(mContentResolver.query(eq(contactUri), any(), any(), any(), any()))
-                .thenReturn(mCursor);
-        when(mCursor.moveToFirst()).thenReturn(true);
 
         PreferenceUtils.updateSettingsSuggestionState(mContext);
 
@@ -162,4 +156,18 @@ public final class PreferenceUtilsTest {
                 eq(PackageManager.COMPONENT_ENABLED_STATE_DISABLED),
                 eq(PackageManager.DONT_KILL_APP));
     }
+
+    @Test
+    public void testUpdateSettingsSuggestionState_unchanged_updatesComponentOnce() {
+        when(mSharedPreferences.getString(anyString(), anyString())).thenReturn("");
+
+        PreferenceUtils.updateSettingsSuggestionState(mContext);
+        PreferenceUtils.updateSettingsSuggestionState(mContext);
+        PreferenceUtils.enableSettingsSuggestion(mContext);
+
+        verify(mPackageManager, times(1)).setComponentEnabledSetting(
+                eq(mComponentName),
+                eq(PackageManager.COMPONENT_ENABLED_STATE_ENABLED),
+                eq(PackageManager.DONT_KILL_APP));
+    }
 }
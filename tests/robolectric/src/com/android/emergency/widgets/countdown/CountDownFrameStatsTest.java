@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.widgets.countdown;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/** Unit tests for {@link CountDownFrameStats}. */
+@RunWith(RobolectricTestRunner.class)
+public class CountDownFrameStatsTest {
+    private static final long START_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private CountDownFrameStats mFrameStats;
+
+    @Before
+    public void setUp() {
+        mFrameStats = new CountDownFrameStats(RuntimeEnvironment.application);
+        mFrameStats.onStart(START_NANOS);
+    }
+
+    @Test
+    public void testDump_recordsFrames() {
+        long firstFrameNanos = START_NANOS + TimeUnit.MILLISECONDS.toNanos(40);
+        // 5 ms, then 50 ms: only the second one is over budget.
+        mFrameStats.onFramePosted(firstFrameNanos, firstFrameNanos, firstFrameNanos + 5_000_000);
+        mFrameStats.onFramePosted(firstFrameNanos + 16_000_000, firstFrameNanos + 16_000_000,
+                firstFrameNanos + 66_000_000);
+
+        String dump = dump();
+
+        assertThat(dump).contains("frames drawn: 2");
+        // The budget is one frame at the default 60 frames per second.
+        assertThat(dump).contains("frames over budget (16666 us): 1");
+        assertThat(dump).contains("longest frame: 50000 us");
+        assertThat(dump).contains("time to first frame: 45000 us");
+    }
+
+    @Test
+    public void testOnStart_resetsStats() {
+        mFrameStats.onFramePosted(START_NANOS, START_NANOS, START_NANOS + 50_000_000);
+
+        mFrameStats.onStart(START_NANOS * 2);
+
+        String dump = dump();
+        assertThat(dump).contains("frames drawn: 0");
+        assertThat(dump).contains("time to first frame: n/a");
+    }
+
+    @Test
+    public void testOnPaused_doesNotMeasureGapOverPause() {
+        long frameIntervalNanos = 16_666_666;
+        long resumedNanos = START_NANOS + TimeUnit.SECONDS.toNanos(5);
+        mFrameStats.onFramePosted(START_NANOS, START_NANOS, START_NANOS + 1_000_000);
+        mFrameStats.onFramePosted(START_NANOS + frameIntervalNanos,
+                START_NANOS + frameIntervalNanos, START_NANOS + frameIntervalNanos + 1_000_000);
+
+        mFrameStats.onPaused();
+        mFrameStats.onFramePosted(resumedNanos, resumedNanos, resumedNanos + 1_000_000);
+
+        String dump = dump();
+        assertThat(dump).contains("frames drawn: 3");
+        assertThat(dump).contains("late frames (over 24999 us apart): 0");
+        assertThat(dump).contains("longest gap between frames: 16666 us");
+    }
+
+    @Test
+    public void testOnStart_doesNotMeasureGapFromPreviousRun() {
+        mFrameStats.onFramePosted(START_NANOS, START_NANOS, START_NANOS + 1_000_000);
+
+        mFrameStats.onStart(START_NANOS * 2);
+        mFrameStats.onFramePosted(START_NANOS * 2, START_NANOS * 2, START_NANOS * 2 + 1_000_000);
+
+        String dump = dump();
+        assertThat(dump).contains("late frames (over 24999 us apart): 0");
+        assertThat(dump).contains("longest gap between frames: 0 us");
+    }
+
+    @Test
+    public void testDump_recordsGapsBetweenFrames() {
+        long frameIntervalNanos = 16_666_666;
+        // Each frame is drawn quickly, but the third one comes three frame intervals late.
+        long[] frameTimesNanos = {
+                START_NANOS,
+                START_NANOS + frameIntervalNanos,
+                START_NANOS + frameIntervalNanos * 4,
+                START_NANOS + frameIntervalNanos * 5};
+        for (long frameTimeNanos : frameTimesNanos) {
+            mFrameStats.onFramePosted(frameTimeNanos, frameTimeNanos, frameTimeNanos + 1_000_000);
+        }
+
+        String dump = dump();
+
+        assertThat(dump).contains("frames over budget (16666 us): 0");
+        assertThat(dump).contains("late frames (over 24999 us apart): 1");
+        assertThat(dump).contains("longest gap between frames: 49999 us");
+    }
+
+    private String dump() {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+        mFrameStats.dump("", printWriter);
+        printWriter.flush();
+        return stringWriter.toString();
+    }
+}
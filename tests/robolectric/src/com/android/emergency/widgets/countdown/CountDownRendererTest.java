@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.widgets.countdown;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyFloat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.List;
+
+/** Unit tests for {@link CountDownRenderer}. */
+@RunWith(RobolectricTestRunner.class)
+public class CountDownRendererTest {
+    @Mock private Canvas mCanvas;
+    private CountDownRenderer mCountDownRenderer;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mCountDownRenderer = new CountDownRenderer(RuntimeEnvironment.application);
+        mCountDownRenderer.updateBounds(new RectF(0, 0, 400, 400), 400);
+    }
+
+    @Test
+    public void testDraw_secondsLeftNotSet_drawsNothing() {
+        mCountDownRenderer.draw(mCanvas, -1 /* secondsLeft */);
+
+        verify(mCanvas, never()).drawBitmap(any(Bitmap.class), any(Rect.class), any(Rect.class),
+                any(Paint.class));
+    }
+
+    @Test
+    public void testDraw_blitsDigitsAndUnitFromAtlas() {
+        mCountDownRenderer.draw(mCanvas, 10 /* secondsLeft */);
+
+        verify(mCanvas, times(3)).drawBitmap(any(Bitmap.class), any(Rect.class), any(Rect.class),
+                any(Paint.class));
+        verify(mCanvas, never()).drawText(any(String.class), anyFloat(), anyFloat(),
+                any(Paint.class));
+    }
+
+    @Test
+    public void testDraw_sameSecondsLeft_reusesLayout() {
+        mCountDownRenderer.draw(mCanvas, 5 /* secondsLeft */);
+        mCountDownRenderer.draw(mCanvas, 5 /* secondsLeft */);
+
+        ArgumentCaptor<Rect> destinationCaptor = ArgumentCaptor.forClass(Rect.class);
+        verify(mCanvas, times(4)).drawBitmap(any(Bitmap.class), any(Rect.class),
+                destinationCaptor.capture(), any(Paint.class));
+        List<Rect> destinations = destinationCaptor.getAllValues();
+        assertThat(destinations.get(2)).isSameAs(destinations.get(0));
+        assertThat(destinations.get(3)).isSameAs(destinations.get(1));
+    }
+
+    @Test
+    public void testUpdateBounds_laysOutAgainInPlace() {
+        mCountDownRenderer.draw(mCanvas, 5 /* secondsLeft */);
+        mCountDownRenderer.updateBounds(new RectF(100, 100, 300, 300), 200);
+        mCountDownRenderer.draw(mCanvas, 5 /* secondsLeft */);
+
+        ArgumentCaptor<Rect> destinationCaptor = ArgumentCaptor.forClass(Rect.class);
+        verify(mCanvas, times(4)).drawBitmap(any(Bitmap.class), any(Rect.class),
+                destinationCaptor.capture(), any(Paint.class));
+        List<Rect> destinations = destinationCaptor.getAllValues();
+        assertThat(destinations.get(2)).isSameAs(destinations.get(0));
+        assertThat(destinations.get(2).left).isAtLeast(100);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.widgets.countdown;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.view.animation.DecelerateInterpolator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.TimeUnit;
+
+/** Unit tests for {@link LoopAnimationCurve}. */
+@RunWith(RobolectricTestRunner.class)
+public class LoopAnimationCurveTest {
+    private static final long LOOP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final long LOOP_TRAIL_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(350);
+    private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    private final LoopAnimationCurve mLoopAnimationCurve = new LoopAnimationCurve(
+            LOOP_INTERVAL_NANOS, LOOP_TRAIL_DELAY_NANOS, SAMPLE_INTERVAL_NANOS);
+
+    @Test
+    public void testGetAngles_matchInterpolator() {
+        DecelerateInterpolator interpolator = new DecelerateInterpolator();
+        long loopTrackIntervalNanos = LOOP_INTERVAL_NANOS - LOOP_TRAIL_DELAY_NANOS;
+        for (long phaseNanos = 0; phaseNanos < LOOP_INTERVAL_NANOS;
+                phaseNanos += TimeUnit.MILLISECONDS.toNanos(7)) {
+            float headRatio = Math.min(1f, phaseNanos / (float) loopTrackIntervalNanos);
+            float tailRatio = Math.max(0f,
+                    (phaseNanos - LOOP_TRAIL_DELAY_NANOS) / (float) loopTrackIntervalNanos);
+
+            // Within a degree of the exact curve.
+            assertThat(mLoopAnimationCurve.getHeadAngle(phaseNanos))
+                    .isWithin(1f).of(interpolator.getInterpolation(headRatio) * 360f);
+            assertThat(mLoopAnimationCurve.getTailAngle(phaseNanos))
+                    .isWithin(1f).of(interpolator.getInterpolation(tailRatio) * 360f);
+        }
+    }
+
+    @Test
+    public void testGetAngles_endOfLoop() {
+        assertThat(mLoopAnimationCurve.getHeadAngle(LOOP_INTERVAL_NANOS - 1))
+                .isWithin(0.01f).of(360f);
+        assertThat(mLoopAnimationCurve.getTailAngle(LOOP_INTERVAL_NANOS - 1))
+                .isWithin(0.01f).of(360f);
+    }
+
+    @Test
+    public void testCosAndSin_matchMath() {
+        for (float degrees = -360f; degrees <= 360f; degrees += 0.37f) {
+            double radians = Math.toRadians(degrees);
+
+            assertThat(LoopAnimationCurve.cos(degrees))
+                    .isWithin(1e-4f).of((float) Math.cos(radians));
+            assertThat(LoopAnimationCurve.sin(degrees))
+                    .isWithin(1e-4f).of((float) Math.sin(radians));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.widgets.countdown;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+
+/** Unit tests for {@link RenderThreadCountDownView}. */
+@RunWith(RobolectricTestRunner.class)
+public class RenderThreadCountDownViewTest {
+    private RenderThreadCountDownView mCountDownView;
+
+    @Before
+    public void setUp() {
+        mCountDownView = new RenderThreadCountDownView(RuntimeEnvironment.application, null);
+    }
+
+    @Test
+    public void testStart_runsLoopAnimation() {
+        mCountDownView.start(Duration.ofSeconds(5));
+
+        assertThat(dump()).contains("loop running: true");
+        assertThat(mCountDownView.getContentDescription()).isNotNull();
+    }
+
+    @Test
+    public void testStop_stopsLoopAnimation() {
+        mCountDownView.start(Duration.ofSeconds(5));
+
+        mCountDownView.stop();
+
+        assertThat(dump()).contains("loop running: false");
+    }
+
+    @Test
+    public void testSetCountDownLeft_sameSecond_keepsContentDescription() {
+        mCountDownView.start(Duration.ofMillis(5900));
+        CharSequence contentDescription = mCountDownView.getContentDescription();
+
+        mCountDownView.setCountDownLeft(Duration.ofMillis(5100));
+
+        assertThat(mCountDownView.getContentDescription()).isSameAs(contentDescription);
+    }
+
+    private String dump() {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+        mCountDownView.dump("", printWriter);
+        printWriter.flush();
+        return stringWriter.toString();
+    }
+}
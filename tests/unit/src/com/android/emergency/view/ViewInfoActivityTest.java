@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 import android.app.Instrumentation;
 import android.content.Context;
 import android.content.Intent;
+import android.os.SystemClock;
 import android.support.test.uiautomator.UiDevice;
 import android.util.Pair;
 import android.view.Surface;
@@ -43,10 +44,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /** Unit tests for {@link ViewInfoActivity}. */
 @RunWith(AndroidJUnit4.class)
 public class ViewInfoActivityTest {
+    private static final long STATE_LOAD_TIMEOUT_MS = 5000;
+
     private Instrumentation mInstrumentation;
     private Context mTargetContext;
     private UiDevice mDevice;
@@ -221,8 +225,21 @@ public class ViewInfoActivityTest {
         mDevice.setOrientationRight();
     }
 
+    /** Starts the activity, and waits for it to show the state it loads in the background. */
     private ViewInfoActivity startViewInfoActivity() {
         final Intent viewActivityIntent = new Intent(mTargetContext, ViewInfoActivity.class);
-        return (ViewInfoActivity) mInstrumentation.startActivitySync(viewActivityIntent);
+        ViewInfoActivity activity =
+                (ViewInfoActivity) mInstrumentation.startActivitySync(viewActivityIntent);
+        long deadlineMillis = SystemClock.uptimeMillis() + STATE_LOAD_TIMEOUT_MS;
+        AtomicBoolean isStateShown = new AtomicBoolean();
+        while (SystemClock.uptimeMillis() < deadlineMillis) {
+            mInstrumentation.runOnMainSync(
+                    () -> isStateShown.set(activity.getFragments() != null));
+            if (isStateShown.get()) {
+                return activity;
+            }
+            SystemClock.sleep(10);
+        }
+        throw new AssertionError("State not loaded after " + STATE_LOAD_TIMEOUT_MS + " ms");
     }
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.emergency.widgets.countdown;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Device tests for {@link LoopingAnimationThread}, drawing frames on hardware and software
+ * canvases of an {@link ImageReader} surface.
+ */
+@RunWith(AndroidJUnit4.class)
+public final class LoopingAnimationThreadTest {
+    private static final String TAG = "LoopingAnimationThreadTest";
+    private static final int SIZE = 720;
+    private static final int FRAME_COUNT = 300;
+    private static final long FRAME_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    private Context mContext;
+    private LoopingAnimationThread mLoopingAnimationThread;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mContext = context;
+        // The thread is never started: frames are drawn by the test.
+        mLoopingAnimationThread = new LoopingAnimationThread(
+                null /* surfaceHolder */, context, new CountDownFrameStats(context));
+        mLoopingAnimationThread.updateSize(SIZE, SIZE);
+        mLoopingAnimationThread.setCountDownLeft(Duration.ofSeconds(5));
+        mLoopingAnimationThread.showCountDown();
+    }
+
+    /**
+     * Measurement only: logs how long frames take on each canvas, without asserting how they
+     * compare, as that depends on the device.
+     */
+    @Test
+    public void testDrawFrame_measuresHardwareAndSoftwareCanvas() {
+        long hardwareNanos = drawFrames(true /* hardwareCanvas */);
+        long softwareNanos = drawFrames(false /* hardwareCanvas */);
+
+        Log.i(TAG, "Hardware canvas: " + hardwareNanos / FRAME_COUNT + " ns/frame, "
+                + "software canvas: " + softwareNanos / FRAME_COUNT + " ns/frame");
+    }
+
+    @Test
+    public void testRun_hardwareCanvasUnavailable_postsFramesOnSoftwareCanvas()
+            throws InterruptedException {
+        ImageReader imageReader = ImageReader.newInstance(SIZE, SIZE, PixelFormat.RGBA_8888, 2);
+        HandlerThread imageThread = new HandlerThread(TAG);
+        imageThread.start();
+        CountDownLatch framesReceived = new CountDownLatch(10);
+        imageReader.setOnImageAvailableListener(reader -> {
+            Image image = reader.acquireNextImage();
+            if (image != null) {
+                image.close();
+                framesReceived.countDown();
+            }
+        }, new Handler(imageThread.getLooper()));
+        SoftwareOnlySurfaceHolder surfaceHolder =
+                new SoftwareOnlySurfaceHolder(imageReader.getSurface());
+        LoopingAnimationThread thread = new LoopingAnimationThread(
+                surfaceHolder, mContext, new CountDownFrameStats(mContext));
+        try {
+            thread.start();
+
+            assertThat(framesReceived.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            thread.stopDrawing();
+            thread.join();
+            imageThread.quitSafely();
+            imageReader.close();
+        }
+        // The hardware canvas is only tried once, then every frame is posted in software.
+        assertThat(surfaceHolder.mHardwareLockCount.get()).isEqualTo(1);
+        assertThat(surfaceHolder.mHardwareCanvasPosted).isFalse();
+    }
+
+    @Test
+    public void testSetPaused_stopsPostingFramesUntilResumed() throws InterruptedException {
+        ImageReader imageReader = ImageReader.newInstance(SIZE, SIZE, PixelFormat.RGBA_8888, 2);
+        HandlerThread imageThread = new HandlerThread(TAG);
+        imageThread.start();
+        imageReader.setOnImageAvailableListener(reader -> {
+            Image image = reader.acquireNextImage();
+            if (image != null) {
+                image.close();
+            }
+        }, new Handler(imageThread.getLooper()));
+        SoftwareOnlySurfaceHolder surfaceHolder =
+                new SoftwareOnlySurfaceHolder(imageReader.getSurface());
+        LoopingAnimationThread thread = new LoopingAnimationThread(
+                surfaceHolder, mContext, new CountDownFrameStats(mContext));
+        try {
+            thread.start();
+            assertThat(waitForPostCount(surfaceHolder, 5)).isTrue();
+
+            thread.setPaused(true);
+            // Let a frame that was being drawn when pausing finish.
+            Thread.sleep(100);
+            int pausedPostCount = surfaceHolder.mPostCount.get();
+            Thread.sleep(500);
+            assertThat(surfaceHolder.mPostCount.get()).isEqualTo(pausedPostCount);
+
+            thread.setPaused(false);
+            assertThat(waitForPostCount(surfaceHolder, pausedPostCount + 5)).isTrue();
+        } finally {
+            thread.stopDrawing();
+            thread.join();
+            imageThread.quitSafely();
+            imageReader.close();
+        }
+    }
+
+    /** Waits up to 5 seconds for {@code count} frames to be posted to {@code surfaceHolder}. */
+    private static boolean waitForPostCount(SoftwareOnlySurfaceHolder surfaceHolder, int count)
+            throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (surfaceHolder.mPostCount.get() < count) {
+            if (System.nanoTime() > deadlineNanos) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Draws and posts {@link #FRAME_COUNT} frames, checking that each one reaches the image
+     * reader, and returns the total time spent.
+     */
+    private long drawFrames(boolean hardwareCanvas) {
+        // A surface can't be locked by the CPU once drawn in by the GPU: each run gets its own.
+        ImageReader imageReader = ImageReader.newInstance(SIZE, SIZE, PixelFormat.RGBA_8888, 2);
+        try {
+            return drawFrames(imageReader, hardwareCanvas);
+        } finally {
+            imageReader.close();
+        }
+    }
+
+    private long drawFrames(ImageReader imageReader, boolean hardwareCanvas) {
+        Surface surface = imageReader.getSurface();
+        long totalNanos = 0;
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            long frameStartNanos = System.nanoTime();
+            Canvas canvas = hardwareCanvas ? surface.lockHardwareCanvas()
+                    : surface.lockCanvas(null);
+            assertThat(canvas.isHardwareAccelerated()).isEqualTo(hardwareCanvas);
+            mLoopingAnimationThread.drawFrame(canvas, i * FRAME_INTERVAL_NANOS);
+            surface.unlockCanvasAndPost(canvas);
+            totalNanos += System.nanoTime() - frameStartNanos;
+
+            Image image = acquireNextImage(imageReader);
+            assertThat(image).isNotNull();
+            image.close();
+        }
+        return totalNanos;
+    }
+
+    /** Surface holder of a surface that can only be locked for software drawing. */
+    private static final class SoftwareOnlySurfaceHolder implements SurfaceHolder {
+        final AtomicInteger mHardwareLockCount = new AtomicInteger();
+        final AtomicInteger mPostCount = new AtomicInteger();
+        volatile boolean mHardwareCanvasPosted;
+        private final Surface mSurface;
+
+        SoftwareOnlySurfaceHolder(Surface surface) {
+            mSurface = surface;
+        }
+
+        @Override
+        public Canvas lockHardwareCanvas() {
+            mHardwareLockCount.incrementAndGet();
+            throw new IllegalStateException("Hardware canvas not supported");
+        }
+
+        @Override
+        public Canvas lockCanvas() {
+            return mSurface.lockCanvas(null);
+        }
+
+        @Override
+        public Canvas lockCanvas(Rect dirty) {
+            return mSurface.lockCanvas(dirty);
+        }
+
+        @Override
+        public void unlockCanvasAndPost(Canvas canvas) {
+            if (canvas.isHardwareAccelerated()) {
+                mHardwareCanvasPosted = true;
+            }
+            mSurface.unlockCanvasAndPost(canvas);
+            mPostCount.incrementAndGet();
+        }
+
+        @Override
+        public Rect getSurfaceFrame() {
+            return new Rect(0, 0, SIZE, SIZE);
+        }
+
+        @Override
+        public Surface getSurface() {
+            return mSurface;
+        }
+
+        @Override
+        public void addCallback(Callback callback) {}
+
+        @Override
+        public void removeCallback(Callback callback) {}
+
+        @Override
+        public boolean isCreating() {
+            return false;
+        }
+
+        @Override
+        public void setType(int type) {}
+
+        @Override
+        public void setFixedSize(int width, int height) {}
+
+        @Override
+        public void setSizeFromLayout() {}
+
+        @Override
+        public void setFormat(int format) {}
+
+        @Override
+        public void setKeepScreenOn(boolean screenOn) {}
+    }
+
+    private static Image acquireNextImage(ImageReader imageReader) {
+        // Hardware frames are rendered asynchronously.
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        Image image = imageReader.acquireNextImage();
+        while (image == null && System.nanoTime() < deadlineNanos) {
+            Thread.yield();
+            image = imageReader.acquireNextImage();
+        }
+        return image;
+    }
+}